@@ -0,0 +1,35 @@
+package com.example.wallet.components;
+
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.Status;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts which attempt of a converter call produced the answer.
+ */
+public class ConversionAttemptTracer extends ClientStreamTracer.Factory {
+    private final Counter firstAttemptWins;
+    private final Counter laterAttemptWins;
+
+    public ConversionAttemptTracer(MeterRegistry registry) {
+        this.firstAttemptWins = registry.counter("converter.rpc.wins", "attempt", "first");
+        this.laterAttemptWins = registry.counter("converter.rpc.wins", "attempt", "later");
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+        Counter wins = info.getPreviousAttempts() == 0 ? firstAttemptWins : laterAttemptWins;
+
+        return new ClientStreamTracer() {
+            @Override
+            public void streamClosed(Status status) {
+                if (status.isOk()) {
+                    wins.increment();
+                }
+            }
+        };
+    }
+}
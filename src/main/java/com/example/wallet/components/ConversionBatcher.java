@@ -0,0 +1,305 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.ConverterTransport;
+
+import converter.BatchRequest;
+import converter.BatchResponse;
+import converter.CurrencyGrpc;
+import converter.Request;
+import converter.Response;
+
+import io.grpc.Channel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces conversion requests from many caller threads into micro-batches.
+ */
+public class ConversionBatcher {
+    private final Supplier<Channel> channels;
+    private final ConverterTransport transport;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final long deadlineMillis;
+    private final Semaphore inFlight;
+    private final Object streamLock = new Object();
+
+    private final BlockingQueue<PendingConversion> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Thread dispatcher;
+
+    private volatile ConversionStream stream;
+    private volatile boolean running = true;
+
+    public ConversionBatcher(
+            Supplier<Channel> channels,
+            ConverterTransport transport,
+            int maxBatchSize,
+            long maxLingerMicros,
+            int maxInFlight,
+            long deadlineMillis
+    ) {
+        this.channels = channels;
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = TimeUnit.MICROSECONDS.toNanos(maxLingerMicros);
+        this.deadlineMillis = deadlineMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.dispatcher = new Thread(this::dispatch, "conversion-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public CompletableFuture<Float> submit(Request request) {
+        CompletableFuture<Float> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Conversion batcher is shut down"));
+            return future;
+        }
+
+        long id = ids.incrementAndGet();
+        queue.add(new PendingConversion(request.toBuilder().setId(id).build(), future));
+        future.orTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    int awaiting() {
+        synchronized (streamLock) {
+            ConversionStream current = stream;
+            return current == null ? 0 : current.awaiting.size();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+
+        ConversionStream current;
+        synchronized (streamLock) {
+            current = stream;
+            stream = null;
+        }
+
+        IllegalStateException shutdown = new IllegalStateException("Conversion batcher is shut down");
+        if (current != null) {
+            current.requests.onCompleted();
+            current.failAwaiting(shutdown);
+        }
+        for (PendingConversion pending : queue) {
+            pending.future().completeExceptionally(shutdown);
+        }
+    }
+
+    private void dispatch() {
+        List<PendingConversion> batch = new ArrayList<>(maxBatchSize);
+
+        while (running) {
+            try {
+                batch.add(queue.take());
+
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+
+                    PendingConversion next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                if (transport == ConverterTransport.STREAM) {
+                    sendOnStream(batch);
+                } else {
+                    sendBatch(new ArrayList<>(batch));
+                }
+            } catch (InterruptedException e) {
+                IllegalStateException shutdown = new IllegalStateException("Conversion batcher is shut down");
+                for (PendingConversion pending : batch) {
+                    pending.future().completeExceptionally(shutdown);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                for (PendingConversion pending : batch) {
+                    pending.future().completeExceptionally(e);
+                }
+            }
+
+            batch.clear();
+        }
+    }
+
+    private void sendBatch(List<PendingConversion> batch) throws InterruptedException {
+        BatchRequest.Builder request = BatchRequest.newBuilder();
+        for (PendingConversion pending : batch) {
+            request.addRequests(pending.request());
+        }
+
+        inFlight.acquire();
+        try {
+            CurrencyGrpc.newStub(channels.get())
+                    .withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .convertBatch(request.build(), batchObserver(batch));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private StreamObserver<BatchResponse> batchObserver(List<PendingConversion> batch) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(BatchResponse response) {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (i < response.getResponsesCount()) {
+                        batch.get(i).future().complete(response.getResponses(i).getValue());
+                    } else {
+                        batch.get(i).future().completeExceptionally(
+                                new IllegalStateException("Converter answered " + response.getResponsesCount()
+                                        + " of " + batch.size() + " conversions")
+                        );
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                inFlight.release();
+                for (PendingConversion pending : batch) {
+                    pending.future().completeExceptionally(throwable);
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                inFlight.release();
+            }
+        };
+    }
+
+    private void sendOnStream(List<PendingConversion> batch) {
+        // A conversion that timed out while it was queued is not sent.
+        List<PendingConversion> sent = new ArrayList<>(batch.size());
+        for (PendingConversion pending : batch) {
+            if (!pending.future().isDone()) {
+                sent.add(pending);
+            }
+        }
+        if (sent.isEmpty()) {
+            return;
+        }
+
+        synchronized (streamLock) {
+            ConversionStream current = stream;
+            if (current == null) {
+                current = new ConversionStream();
+                stream = current;
+            }
+            for (PendingConversion pending : sent) {
+                current.await(pending);
+            }
+
+            try {
+                for (PendingConversion pending : sent) {
+                    current.requests.onNext(pending.request());
+                }
+            } catch (RuntimeException e) {
+                stream = null;
+                for (PendingConversion pending : sent) {
+                    current.awaiting.remove(pending.request().getId());
+                }
+                throw e;
+            }
+        }
+    }
+
+    private class ConversionStream implements StreamObserver<Response> {
+        private final Map<Long, CompletableFuture<Float>> awaiting = new ConcurrentHashMap<>();
+        private final StreamObserver<Request> requests;
+
+        ConversionStream() {
+            this.requests = CurrencyGrpc.newStub(channels.get()).convertStream(this);
+        }
+
+        void await(PendingConversion pending) {
+            long id = pending.request().getId();
+            CompletableFuture<Float> future = pending.future();
+            awaiting.put(id, future);
+            future.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    timedOut(id, future);
+                }
+            });
+        }
+
+        // A conversion that timed out on this call leaves it presumed stuck.
+        private void timedOut(long id, CompletableFuture<Float> future) {
+            synchronized (streamLock) {
+                if (!awaiting.remove(id, future)) {
+                    return;
+                }
+                detach();
+            }
+            if (requests instanceof ClientCallStreamObserver<Request> call) {
+                call.cancel("Conversion timed out", null);
+            }
+        }
+
+        private void detach() {
+            synchronized (streamLock) {
+                if (stream == this) {
+                    stream = null;
+                }
+            }
+        }
+
+        @Override
+        public void onNext(Response response) {
+            CompletableFuture<Float> future = awaiting.remove(response.getId());
+            if (future != null) {
+                future.complete(response.getValue());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            detach();
+            failAwaiting(throwable);
+        }
+
+        @Override
+        public void onCompleted() {
+            detach();
+            failAwaiting(new IllegalStateException("Converter closed the conversion stream"));
+        }
+
+        void failAwaiting(Throwable throwable) {
+            for (Long id : awaiting.keySet()) {
+                CompletableFuture<Float> future = awaiting.remove(id);
+                if (future != null) {
+                    future.completeExceptionally(throwable);
+                }
+            }
+        }
+    }
+
+    private record PendingConversion(Request request, CompletableFuture<Float> future) {
+    }
+}
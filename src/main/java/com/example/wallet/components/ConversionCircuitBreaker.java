@@ -0,0 +1,62 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.CircuitState;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Trips after a run of converter failures and lets a single probe through once
+ * the open period ends.
+ */
+public class ConversionCircuitBreaker {
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    public ConversionCircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == CircuitState.OPEN) {
+            if (clock.getAsLong() - openedAt < openMillis) {
+                return false;
+            }
+            state = CircuitState.HALF_OPEN;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+        }
+
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        failures = 0;
+        probing = false;
+        state = CircuitState.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == CircuitState.HALF_OPEN || failures >= failureThreshold) {
+            state = CircuitState.OPEN;
+            openedAt = clock.getAsLong();
+            probing = false;
+        }
+    }
+
+    public synchronized CircuitState state() {
+        return state;
+    }
+}
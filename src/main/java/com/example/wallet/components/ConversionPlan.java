@@ -0,0 +1,53 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.ConversionLeg;
+import com.example.wallet.enums.Currency;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The conversions one wallet operation needs, worked out once before any money
+ * moves.
+ */
+public final class ConversionPlan {
+    private final Map<ConversionLeg, Money> amounts = new EnumMap<>(ConversionLeg.class);
+    private final Map<ConversionLeg, Currency> targets = new EnumMap<>(ConversionLeg.class);
+
+    public ConversionPlan leg(ConversionLeg leg, Money amount, Currency target) {
+        amounts.put(leg, amount);
+        targets.put(leg, target);
+        return this;
+    }
+
+    public boolean needsConversion() {
+        for (Map.Entry<ConversionLeg, Money> leg : amounts.entrySet()) {
+            if (leg.getValue().getCurrency() != targets.get(leg.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<ConversionLeg, Money> execute(CurrencyConverter converter) {
+        Map<ConversionLeg, CompletableFuture<Money>> pending = new EnumMap<>(ConversionLeg.class);
+        Map<ConversionLeg, Money> converted = new EnumMap<>(ConversionLeg.class);
+
+        for (Map.Entry<ConversionLeg, Money> leg : amounts.entrySet()) {
+            Money amount = leg.getValue();
+            Currency target = targets.get(leg.getKey());
+            if (amount.getCurrency() == target) {
+                converted.put(leg.getKey(), amount);
+            } else {
+                pending.put(leg.getKey(), converter.convertAsync(amount, target));
+            }
+        }
+        for (Map.Entry<ConversionLeg, CompletableFuture<Money>> leg : pending.entrySet()) {
+            converted.put(leg.getKey(), AsyncResults.await(leg.getValue()));
+        }
+
+        return converted;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * Unit rates per (from, to) currency pair.
+ */
+@Component
+public class ConversionRateCache {
+    private static final int CURRENCIES = Currency.values().length;
+    private static final CompletableFuture<Double> IDENTITY = CompletableFuture.completedFuture(1.0);
+
+    private final AtomicReferenceArray<CachedRate> rates = new AtomicReferenceArray<>(CURRENCIES * CURRENCIES);
+    // Never invalidated, so a converter outage right after a version bump can still be served.
+    private final AtomicReferenceArray<CachedRate> known = new AtomicReferenceArray<>(CURRENCIES * CURRENCIES);
+    private final Map<Integer, CompletableFuture<Double>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong rateVersion = new AtomicLong();
+
+    private final long ttl;
+    private final long refreshAfter;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+
+    public ConversionRateCache(
+            MeterRegistry registry,
+            @Value(value = "${application.converter.cache.ttl}") long ttl,
+            @Value(value = "${application.converter.cache.refresh-after}") long refreshAfter
+    ) {
+        this.ttl = ttl;
+        this.refreshAfter = refreshAfter;
+        this.hits = registry.counter("converter.rate.cache", "result", "hit");
+        this.misses = registry.counter("converter.rate.cache", "result", "miss");
+        this.refreshes = registry.counter("converter.rate.cache", "result", "refresh");
+    }
+
+    public CompletableFuture<Double> rate(
+            Currency from,
+            Currency to,
+            BiFunction<Currency, Currency, CompletableFuture<Double>> loader
+    ) {
+        if (from == to) {
+            return IDENTITY;
+        }
+
+        int index = from.ordinal() * CURRENCIES + to.ordinal();
+        CachedRate cached = rates.get(index);
+        long now = System.currentTimeMillis();
+
+        if (cached == null || now - cached.fetchedAt() >= ttl) {
+            misses.increment();
+            return load(index, from, to, loader);
+        }
+
+        hits.increment();
+        if (now - cached.fetchedAt() >= refreshAfter && !loading.containsKey(index)) {
+            refreshes.increment();
+            load(index, from, to, loader);
+        }
+
+        return CompletableFuture.completedFuture(cached.rate());
+    }
+
+    public OptionalDouble lastKnown(Currency from, Currency to) {
+        if (from == to) {
+            return OptionalDouble.of(1.0);
+        }
+
+        CachedRate cached = known.get(from.ordinal() * CURRENCIES + to.ordinal());
+        return cached == null ? OptionalDouble.empty() : OptionalDouble.of(cached.rate());
+    }
+
+    public long version() {
+        return rateVersion.get();
+    }
+
+    public void observeVersion(long version) {
+        long known = rateVersion.get();
+        while (version > known) {
+            if (rateVersion.compareAndSet(known, version)) {
+                invalidate();
+                return;
+            }
+            known = rateVersion.get();
+        }
+    }
+
+    public void invalidate() {
+        for (int i = 0; i < rates.length(); i++) {
+            rates.set(i, null);
+        }
+    }
+
+    private CompletableFuture<Double> load(
+            int index,
+            Currency from,
+            Currency to,
+            BiFunction<Currency, Currency, CompletableFuture<Double>> loader
+    ) {
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+        CompletableFuture<Double> existing = loading.putIfAbsent(index, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<Double> loaded;
+        try {
+            loaded = loader.apply(from, to);
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+
+        loaded.whenComplete((rate, failure) -> {
+            if (failure == null) {
+                CachedRate loadedRate = new CachedRate(rate, System.currentTimeMillis());
+                rates.set(index, loadedRate);
+                known.set(index, loadedRate);
+            }
+            loading.remove(index, pending);
+
+            if (failure == null) {
+                pending.complete(rate);
+            } else {
+                pending.completeExceptionally(failure);
+            }
+        });
+
+        return pending;
+    }
+
+    private record CachedRate(double rate, long fetchedAt) {
+    }
+}
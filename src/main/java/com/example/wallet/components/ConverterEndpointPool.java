@@ -0,0 +1,283 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.BalancingPolicy;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.ConverterUnavailableException;
+
+import converter.CurrencyGrpc;
+import converter.Request;
+import converter.Response;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.grpc.ManagedChannel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Spreads converter calls over the healthy endpoints, each with a few
+ * long-lived channels.
+ */
+public class ConverterEndpointPool {
+    private static final Request PROBE = Request.newBuilder()
+            .setFromCurrency(Currency.INR.toString())
+            .setToCurrency(Currency.INR.toString())
+            .setValue(1)
+            .build();
+
+    private final Function<String, ManagedChannel> channelFactory;
+    private final int channelsPerEndpoint;
+    private final int maxConcurrentStreams;
+    private final BalancingPolicy policy;
+    private final int unhealthyAfter;
+    private final long probeTimeoutMillis;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final Queue<CompletableFuture<Lease>> waiters = new ConcurrentLinkedQueue<>();
+    private volatile List<Endpoint> endpoints = List.of();
+
+    public ConverterEndpointPool(
+            Function<String, ManagedChannel> channelFactory,
+            int channelsPerEndpoint,
+            int maxConcurrentStreams,
+            BalancingPolicy policy,
+            int unhealthyAfter,
+            long probeTimeoutMillis
+    ) {
+        this.channelFactory = channelFactory;
+        this.channelsPerEndpoint = channelsPerEndpoint;
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.policy = policy;
+        this.unhealthyAfter = unhealthyAfter;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+    }
+
+    public synchronized void update(List<String> targets) {
+        Map<String, Endpoint> current = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            current.put(endpoint.target, endpoint);
+        }
+
+        List<Endpoint> updated = new ArrayList<>();
+        for (String target : new LinkedHashSet<>(targets)) {
+            Endpoint existing = current.remove(target);
+            updated.add(existing != null ? existing : new Endpoint(target));
+        }
+
+        endpoints = List.copyOf(updated);
+        for (Endpoint removed : current.values()) {
+            removed.shutdown();
+        }
+    }
+
+    /**
+     * The lease must be released once the call completes.
+     */
+    public Lease acquire() {
+        return acquireAsync().join();
+    }
+
+    public CompletableFuture<Lease> acquireAsync() {
+        Lease lease = tryLease();
+        if (lease != null) {
+            return CompletableFuture.completedFuture(lease);
+        }
+
+        CompletableFuture<Lease> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        handOut();
+        return waiter;
+    }
+
+    private void handOut() {
+        while (!waiters.isEmpty()) {
+            Lease lease = tryLease();
+            if (lease == null) {
+                return;
+            }
+
+            CompletableFuture<Lease> waiter;
+            do {
+                waiter = waiters.poll();
+            } while (waiter != null && !waiter.complete(lease));
+
+            if (waiter == null) {
+                lease.giveBack();
+            }
+        }
+    }
+
+    private Lease tryLease() {
+        for (Endpoint endpoint : candidates()) {
+            int start = endpoint.next.getAndIncrement();
+            for (int i = 0; i < endpoint.channels.length; i++) {
+                int index = Math.floorMod(start + i, endpoint.channels.length);
+                if (endpoint.streams[index].tryAcquire()) {
+                    endpoint.outstanding.incrementAndGet();
+                    return new Lease(endpoint, index);
+                }
+            }
+        }
+        return null;
+    }
+
+    public ManagedChannel channel() {
+        Endpoint endpoint = candidates().get(0);
+        return endpoint.channels[Math.floorMod(endpoint.next.getAndIncrement(), endpoint.channels.length)];
+    }
+
+    /**
+     * Run every health interval by {@link CurrencyConversionClient}; this is
+     * what puts endpoints back.
+     */
+    public void probe() {
+        for (Endpoint endpoint : endpoints) {
+            try {
+                Futures.addCallback(
+                        CurrencyGrpc.newFutureStub(endpoint.channels[0])
+                                .withDeadlineAfter(probeTimeoutMillis, TimeUnit.MILLISECONDS)
+                                .convert(PROBE),
+                        new FutureCallback<>() {
+                            @Override
+                            public void onSuccess(Response result) {
+                                endpoint.failures.set(0);
+                                endpoint.healthy = true;
+                            }
+
+                            @Override
+                            public void onFailure(Throwable throwable) {
+                                endpoint.failed();
+                            }
+                        },
+                        MoreExecutors.directExecutor()
+                );
+            } catch (RuntimeException e) {
+                // Thrown out of a scheduled run, it would stop every later one.
+                endpoint.failed();
+            }
+        }
+    }
+
+    public List<String> targets() {
+        return endpoints.stream().map(endpoint -> endpoint.target).toList();
+    }
+
+    public List<String> healthyTargets() {
+        return endpoints.stream().filter(endpoint -> endpoint.healthy).map(endpoint -> endpoint.target).toList();
+    }
+
+    public synchronized void shutdown() throws InterruptedException {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.shutdown();
+        }
+        for (Endpoint endpoint : endpoints) {
+            for (ManagedChannel channel : endpoint.channels) {
+                channel.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+        endpoints = List.of();
+    }
+
+    private List<Endpoint> candidates() {
+        List<Endpoint> all = endpoints;
+        List<Endpoint> candidates = all.stream().filter(endpoint -> endpoint.healthy).toList();
+        if (candidates.isEmpty()) {
+            candidates = all;
+        }
+        if (candidates.isEmpty()) {
+            throw new ConverterUnavailableException();
+        }
+
+        if (policy == BalancingPolicy.LEAST_OUTSTANDING) {
+            return candidates.stream()
+                    .sorted(Comparator.comparingInt(endpoint -> endpoint.outstanding.get()))
+                    .toList();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        List<Endpoint> ordered = new ArrayList<>(candidates.subList(start, candidates.size()));
+        ordered.addAll(candidates.subList(0, start));
+        return ordered;
+    }
+
+    public final class Lease {
+        private final Endpoint endpoint;
+        private final int index;
+
+        private Lease(Endpoint endpoint, int index) {
+            this.endpoint = endpoint;
+            this.index = index;
+        }
+
+        public ManagedChannel channel() {
+            return endpoint.channels[index];
+        }
+
+        public String target() {
+            return endpoint.target;
+        }
+
+        public void release(boolean succeeded) {
+            if (succeeded) {
+                endpoint.failures.set(0);
+            } else {
+                endpoint.failed();
+            }
+
+            giveBack();
+            handOut();
+        }
+
+        private void giveBack() {
+            endpoint.outstanding.decrementAndGet();
+            endpoint.streams[index].release();
+        }
+    }
+
+    private final class Endpoint {
+        private final String target;
+        private final ManagedChannel[] channels;
+        private final Semaphore[] streams;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private volatile boolean healthy = true;
+
+        private Endpoint(String target) {
+            this.target = target;
+            this.channels = new ManagedChannel[channelsPerEndpoint];
+            this.streams = new Semaphore[channelsPerEndpoint];
+
+            for (int i = 0; i < channelsPerEndpoint; i++) {
+                channels[i] = channelFactory.apply(target);
+                streams[i] = new Semaphore(maxConcurrentStreams);
+            }
+        }
+
+        private void failed() {
+            if (failures.incrementAndGet() >= unhealthyAfter) {
+                healthy = false;
+            }
+        }
+
+        private void shutdown() {
+            for (ManagedChannel channel : channels) {
+                channel.shutdown();
+            }
+        }
+    }
+}
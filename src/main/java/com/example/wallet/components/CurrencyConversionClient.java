@@ -0,0 +1,473 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.BalancingPolicy;
+import com.example.wallet.enums.CircuitState;
+import com.example.wallet.enums.ConverterProtocol;
+import com.example.wallet.enums.ConverterTransport;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.ConverterUnavailableException;
+
+import converter.ConvertRequestV2;
+import converter.ConvertResponseV2;
+import converter.CurrencyGrpc;
+import converter.Request;
+import converter.Response;
+
+import com.google.common.math.LongMath;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Owns the long-lived channels to the currency converter instances.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrencyConversionClient implements CurrencyConverter {
+    private static final String IN_PROCESS = "in-process:";
+
+    private final ConversionRateCache rateCache;
+    private final MeterRegistry registry;
+
+    @Value(value = "${application.converter.endpoints}")
+    private List<String> endpoints;
+
+    @Value(value = "${application.converter.balancing}")
+    private BalancingPolicy balancing;
+
+    @Value(value = "${application.converter.health.interval-millis}")
+    private long healthIntervalMillis;
+
+    @Value(value = "${application.converter.health.timeout-millis}")
+    private long healthTimeoutMillis;
+
+    @Value(value = "${application.converter.health.unhealthy-after}")
+    private int unhealthyAfter;
+
+    @Value(value = "${application.converter.channels}")
+    private int channelCount;
+
+    @Value(value = "${application.converter.keep-alive.time}")
+    private long keepAliveTime;
+
+    @Value(value = "${application.converter.keep-alive.timeout}")
+    private long keepAliveTimeout;
+
+    @Value(value = "${application.converter.max-concurrent-streams}")
+    private int maxConcurrentStreams;
+
+    @Value(value = "${application.converter.protocol}")
+    private ConverterProtocol protocol;
+
+    @Value(value = "${application.converter.transport}")
+    private ConverterTransport transport;
+
+    @Value(value = "${application.converter.batch.max-size}")
+    private int maxBatchSize;
+
+    @Value(value = "${application.converter.batch.max-linger-micros}")
+    private long maxLingerMicros;
+
+    @Value(value = "${application.converter.resilience.deadline-millis}")
+    private long deadlineMillis;
+
+    @Value(value = "${application.converter.resilience.max-attempts}")
+    private int maxAttempts;
+
+    @Value(value = "${application.converter.resilience.hedging.enabled}")
+    private boolean hedging;
+
+    @Value(value = "${application.converter.resilience.hedging.delay-millis}")
+    private long hedgingDelayMillis;
+
+    @Value(value = "${application.converter.resilience.retry-budget.max-tokens}")
+    private double retryBudgetMaxTokens;
+
+    @Value(value = "${application.converter.resilience.retry-budget.token-ratio}")
+    private double retryBudgetTokenRatio;
+
+    @Value(value = "${application.converter.resilience.breaker.failure-threshold}")
+    private int breakerFailureThreshold;
+
+    @Value(value = "${application.converter.resilience.breaker.open-millis}")
+    private long breakerOpenMillis;
+
+    @Value(value = "${application.converter.resilience.fallback-to-last-known}")
+    private boolean fallbackToLastKnown;
+
+    @Value(value = "${application.converter.subscription.enabled}")
+    private boolean subscribe;
+
+    @Value(value = "${application.converter.subscription.max-age-millis}")
+    private long maxRateAgeMillis;
+
+    @Value(value = "${application.converter.subscription.backoff.initial-millis}")
+    private long subscriptionInitialBackoffMillis;
+
+    @Value(value = "${application.converter.subscription.backoff.max-millis}")
+    private long subscriptionMaxBackoffMillis;
+
+    private ConverterEndpointPool pool;
+    private ScheduledExecutorService scheduler;
+    private ConversionBatcher batcher;
+    private RateSubscriber subscriber;
+    private ConversionCircuitBreaker breaker;
+    private Counter deadlinesExceeded;
+    private Counter lastKnownServed;
+
+    @PostConstruct
+    public void start() {
+        breaker = new ConversionCircuitBreaker(breakerFailureThreshold, breakerOpenMillis, System::currentTimeMillis);
+        registry.gauge("converter.breaker.state", breaker, current -> current.state().ordinal());
+        deadlinesExceeded = registry.counter("converter.rpc.deadline.exceeded");
+        lastKnownServed = registry.counter("converter.rate.last-known");
+
+        ConversionAttemptTracer tracer = new ConversionAttemptTracer(registry);
+        ClientInterceptor tracing = new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+                    MethodDescriptor<ReqT, RespT> method,
+                    CallOptions callOptions,
+                    Channel next
+            ) {
+                return next.newCall(method, callOptions.withStreamTracerFactory(tracer));
+            }
+        };
+
+        pool = new ConverterEndpointPool(
+                target -> openChannel(target, tracing),
+                channelCount,
+                maxConcurrentStreams,
+                balancing,
+                unhealthyAfter,
+                healthTimeoutMillis
+        );
+        pool.update(endpoints);
+        registry.gauge("converter.endpoints.healthy", pool, current -> current.healthyTargets().size());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "converter-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(pool::probe, healthIntervalMillis, healthIntervalMillis, TimeUnit.MILLISECONDS);
+
+        if (subscribe) {
+            subscriber = new RateSubscriber(
+                    pool::channel,
+                    scheduler,
+                    subscriptionInitialBackoffMillis,
+                    subscriptionMaxBackoffMillis
+            );
+            Gauge.builder("converter.rates.age", subscriber, current -> current.age() == Long.MAX_VALUE ? Double.NaN : current.age())
+                    .baseUnit("milliseconds")
+                    .register(registry);
+            subscriber.start();
+        }
+
+        if (transport != ConverterTransport.UNARY) {
+            batcher = new ConversionBatcher(
+                    pool::channel,
+                    transport,
+                    maxBatchSize,
+                    maxLingerMicros,
+                    maxConcurrentStreams,
+                    deadlineMillis
+            );
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (subscriber != null) {
+            subscriber.shutdown();
+        }
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        scheduler.shutdownNow();
+        pool.shutdown();
+    }
+
+    public void updateEndpoints(List<String> targets) {
+        pool.update(targets);
+    }
+
+    public List<String> endpoints() {
+        return pool.targets();
+    }
+
+    public List<String> healthyEndpoints() {
+        return pool.healthyTargets();
+    }
+
+    @Override
+    public double rate(Currency from, Currency to) {
+        return AsyncResults.await(rateAsync(from, to));
+    }
+
+    public CompletableFuture<Double> rateAsync(Currency from, Currency to) {
+        if (subscriber != null && subscriber.age() <= maxRateAgeMillis) {
+            RateMatrix pushed = subscriber.snapshot();
+            if (pushed.supports(from, to)) {
+                return CompletableFuture.completedFuture(pushed.rate(from, to));
+            }
+        }
+
+        return rateCache.rate(from, to, this::fetchRate)
+                .exceptionallyCompose(failure -> lastKnownRate(from, to));
+    }
+
+    @Override
+    public long ratesRevision() {
+        return rateCache.version() + (subscriber != null ? subscriber.updates() : 0);
+    }
+
+    public CircuitState breakerState() {
+        return breaker.state();
+    }
+
+    @Override
+    public Money convert(Money money, Currency to) {
+        return AsyncResults.await(convertAsync(money, to));
+    }
+
+    @Override
+    public CompletableFuture<Money> convertAsync(Money money, Currency to) {
+        if (protocol == ConverterProtocol.V2 && money.getCurrency() != to) {
+            return convertExactly(money, to)
+                    .exceptionallyCompose(failure -> lastKnownRate(money.getCurrency(), to)
+                            .thenApply(rate -> money.convertedAt(rate, to)));
+        }
+
+        return rateAsync(money.getCurrency(), to)
+                .thenApply(rate -> money.convertedAt(rate, to));
+    }
+
+    private CompletableFuture<Money> convertExactly(Money money, Currency to) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new ConverterUnavailableException());
+        }
+
+        ConvertRequestV2 request = ConvertRequestV2.newBuilder()
+                .setFromCurrency(money.getCurrency().toString())
+                .setToCurrency(to.toString())
+                .setAmountMinor(money.getAmountMinor())
+                .setScale(money.getCurrency().getScale())
+                .setMinRateVersion(rateCache.version())
+                .build();
+
+        return call(stub -> stub.convertV2(request), response -> {
+            rateCache.observeVersion(response.getRateVersion());
+            return converted(response, to);
+        }).whenComplete((value, failure) -> record(failure));
+    }
+
+    private CompletableFuture<Double> fetchRate(Currency from, Currency to) {
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new ConverterUnavailableException());
+        }
+
+        CompletableFuture<Double> rate;
+        if (protocol == ConverterProtocol.V2) {
+            ConvertRequestV2 request = ConvertRequestV2.newBuilder()
+                    .setFromCurrency(from.toString())
+                    .setToCurrency(to.toString())
+                    .setAmountMinor(LongMath.pow(10, from.getScale()))
+                    .setScale(from.getScale())
+                    .setMinRateVersion(rateCache.version())
+                    .build();
+            rate = call(stub -> stub.convertV2(request), this::rateOf);
+        } else {
+            Request request = Request.newBuilder()
+                    .setFromCurrency(from.toString())
+                    .setToCurrency(to.toString())
+                    .setValue(1)
+                    .build();
+            rate = batcher != null
+                    ? batcher.submit(request).thenApply(Float::doubleValue)
+                    : call(stub -> stub.convert(request), response -> (double) response.getValue());
+        }
+
+        return rate.whenComplete((value, failure) -> record(failure));
+    }
+
+    private double rateOf(ConvertResponseV2 response) {
+        rateCache.observeVersion(response.getRateVersion());
+        return BigDecimal.valueOf(response.getRate(), response.getRateScale()).doubleValue();
+    }
+
+    static Money converted(ConvertResponseV2 response, Currency to) {
+        long amountMinor = BigDecimal.valueOf(response.getAmountMinor(), response.getScale())
+                .setScale(to.getScale(), RoundingMode.HALF_EVEN)
+                .unscaledValue()
+                .longValueExact();
+        return Money.ofMinor(amountMinor, to);
+    }
+
+    private <T, R> CompletableFuture<R> call(
+            Function<CurrencyGrpc.CurrencyFutureStub, ListenableFuture<T>> rpc,
+            Function<T, R> resultOf
+    ) {
+        return pool.acquireAsync()
+                .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+                .thenCompose(lease -> call(lease, rpc, resultOf));
+    }
+
+    private <T, R> CompletableFuture<R> call(
+            ConverterEndpointPool.Lease lease,
+            Function<CurrencyGrpc.CurrencyFutureStub, ListenableFuture<T>> rpc,
+            Function<T, R> resultOf
+    ) {
+        CompletableFuture<R> answer = new CompletableFuture<>();
+        ListenableFuture<T> response;
+        try {
+            response = rpc.apply(CurrencyGrpc.newFutureStub(lease.channel())
+                    .withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS));
+        } catch (RuntimeException e) {
+            lease.release(false);
+            throw e;
+        }
+
+        Futures.addCallback(response, new FutureCallback<>() {
+            @Override
+            public void onSuccess(T result) {
+                lease.release(true);
+                answer.complete(resultOf.apply(result));
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                lease.release(false);
+                answer.completeExceptionally(throwable);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return answer;
+    }
+
+    private void record(Throwable failure) {
+        if (failure == null) {
+            breaker.onSuccess();
+            return;
+        }
+
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException || Status.fromThrowable(cause).getCode() == Status.Code.DEADLINE_EXCEEDED) {
+            deadlinesExceeded.increment();
+        }
+        breaker.onFailure();
+    }
+
+    private CompletableFuture<Double> lastKnownRate(Currency from, Currency to) {
+        OptionalDouble lastKnown = fallbackToLastKnown ? rateCache.lastKnown(from, to) : OptionalDouble.empty();
+        if (lastKnown.isEmpty()) {
+            return CompletableFuture.failedFuture(new ConverterUnavailableException());
+        }
+
+        lastKnownServed.increment();
+        return CompletableFuture.completedFuture(lastKnown.getAsDouble());
+    }
+
+    private Map<String, Object> serviceConfig() {
+        List<Map<String, Object>> names = retriedMethods(protocol).stream()
+                .map(method -> Map.<String, Object>of("service", CurrencyGrpc.SERVICE_NAME, "method", method))
+                .toList();
+
+        Map<String, Object> methodConfig = hedging
+                ? Map.of(
+                        "name", names,
+                        "hedgingPolicy", Map.of(
+                                "maxAttempts", (double) maxAttempts,
+                                "hedgingDelay", seconds(hedgingDelayMillis),
+                                "nonFatalStatusCodes", List.of("UNAVAILABLE")
+                        )
+                )
+                : Map.of(
+                        "name", names,
+                        "retryPolicy", Map.of(
+                                "maxAttempts", (double) maxAttempts,
+                                "initialBackoff", "0.01s",
+                                "maxBackoff", seconds(deadlineMillis),
+                                "backoffMultiplier", 2.0,
+                                "retryableStatusCodes", List.of("UNAVAILABLE")
+                        )
+                );
+
+        return Map.of(
+                "methodConfig", List.of(methodConfig),
+                "retryThrottling", Map.of(
+                        "maxTokens", retryBudgetMaxTokens,
+                        "tokenRatio", retryBudgetTokenRatio
+                )
+        );
+    }
+
+    static List<String> retriedMethods(ConverterProtocol protocol) {
+        return protocol == ConverterProtocol.V2
+                ? List.of("Convert", "ConvertBatch", "ConvertV2")
+                : List.of("Convert", "ConvertBatch");
+    }
+
+    private static String seconds(long millis) {
+        return (millis / 1000.0) + "s";
+    }
+
+    private ManagedChannel openChannel(String target, ClientInterceptor tracing) {
+        ManagedChannelBuilder<?> builder;
+        if (target.startsWith(IN_PROCESS)) {
+            builder = InProcessChannelBuilder.forName(target.substring(IN_PROCESS.length()));
+        } else {
+            builder = ManagedChannelBuilder.forTarget(target)
+                    .usePlaintext()
+                    .keepAliveTime(keepAliveTime, TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(keepAliveTimeout, TimeUnit.MILLISECONDS)
+                    .keepAliveWithoutCalls(true);
+        }
+
+        return builder
+                .defaultServiceConfig(serviceConfig())
+                .enableRetry()
+                .maxRetryAttempts(maxAttempts)
+                .maxHedgedAttempts(maxAttempts)
+                .intercept(tracing)
+                .build();
+    }
+}
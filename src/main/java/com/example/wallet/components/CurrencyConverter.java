@@ -0,0 +1,22 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface CurrencyConverter {
+    double rate(Currency from, Currency to);
+
+    Money convert(Money money, Currency to);
+
+    CompletableFuture<Money> convertAsync(Money money, Currency to);
+
+    /**
+     * Changes whenever the rates may have changed without a {@link
+     * com.example.wallet.dto.CurrencyRatesChangedEvent}.
+     */
+    default long ratesRevision() {
+        return 0;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.wallet.components;
+
+import com.example.wallet.configs.FeeScheduleProperties;
+import com.example.wallet.dto.CurrencyRatesChangedEvent;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Service charges for cross-currency transfers, priced ahead of time per
+ * currency pair and amount band.
+ */
+@Component
+public class FeeSchedule {
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final FeeScheduleProperties properties;
+    private final CurrencyConverter currencyConverter;
+    private final LongSupplier clock;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Table table = new Table(new Row[CURRENCIES.length], Long.MIN_VALUE, Long.MIN_VALUE);
+
+    @Autowired
+    public FeeSchedule(FeeScheduleProperties properties, CurrencyConverter currencyConverter) {
+        this(properties, currencyConverter, System::currentTimeMillis, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fee-schedule");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    FeeSchedule(
+            FeeScheduleProperties properties,
+            CurrencyConverter currencyConverter,
+            LongSupplier clock,
+            ExecutorService rebuilder
+    ) {
+        this.properties = properties;
+        this.currencyConverter = currencyConverter;
+        this.clock = clock;
+        this.rebuilder = rebuilder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public synchronized void load() {
+        long revision = currencyConverter.ratesRevision();
+        long builtAt = clock.getAsLong();
+        Row[] built = new Row[CURRENCIES.length];
+        for (Currency from : CURRENCIES) {
+            try {
+                built[from.ordinal()] = row(from);
+            } catch (RuntimeException e) {
+                built[from.ordinal()] = null;
+            }
+        }
+        table = new Table(built, builtAt, revision);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onRatesChanged(CurrencyRatesChangedEvent event) {
+        load();
+    }
+
+    public Money charge(Money amount, Currency to) {
+        Currency from = amount.getCurrency();
+        Row row = current().rows()[from.ordinal()];
+        if (row == null) {
+            row = row(from);
+        }
+
+        for (Band band : row.bands()[to.ordinal()]) {
+            if (band.contains(amount.getAmountMinor())) {
+                return Money.ofMinor(band.chargeMinor(), from);
+            }
+        }
+        return Money.ofMinor(row.defaultChargeMinor(), from);
+    }
+
+    /**
+     * A stale table keeps being served while a single rebuild runs in the background.
+     */
+    private Table current() {
+        if (isStale(table) && rebuilding.compareAndSet(false, true)) {
+            try {
+                rebuilder.execute(() -> {
+                    try {
+                        load();
+                    } finally {
+                        rebuilding.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rebuilding.set(false);
+            }
+        }
+        return table;
+    }
+
+    private boolean isStale(Table table) {
+        return table.revision() != currencyConverter.ratesRevision()
+                || properties.maxAgeMillis() > 0 && clock.getAsLong() - table.builtAt() >= properties.maxAgeMillis();
+    }
+
+    private Row row(Currency from) {
+        double rate = currencyConverter.rate(properties.currency(), from);
+        Band[][] bands = new Band[CURRENCIES.length][];
+
+        for (Currency to : CURRENCIES) {
+            List<Band> pair = new ArrayList<>();
+            for (FeeScheduleProperties.Rule rule : properties.rules()) {
+                if (rule.matches(from, to)) {
+                    pair.add(new Band(
+                            inSender(rule.minAmount(), rate, from),
+                            rule.maxAmount() == null ? Long.MAX_VALUE : inSender(rule.maxAmount(), rate, from),
+                            inSender(rule.charge(), rate, from)
+                    ));
+                }
+            }
+            bands[to.ordinal()] = pair.toArray(new Band[0]);
+        }
+
+        return new Row(bands, inSender(properties.defaultCharge(), rate, from));
+    }
+
+    private long inSender(double amount, double rate, Currency from) {
+        return new Money(amount, properties.currency()).convertedAt(rate, from).getAmountMinor();
+    }
+
+    private record Band(long minMinor, long maxMinor, long chargeMinor) {
+        boolean contains(long amountMinor) {
+            return amountMinor >= minMinor && amountMinor < maxMinor;
+        }
+    }
+
+    private record Row(Band[][] bands, long defaultChargeMinor) {
+    }
+
+    private record Table(Row[] rows, long builtAt, long revision) {
+    }
+}
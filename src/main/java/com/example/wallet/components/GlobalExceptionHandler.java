@@ -3,6 +3,8 @@ package com.example.wallet.components;
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.exceptions.*;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -201,4 +203,172 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(response.getStatus()).body(response);
     }
+
+    @ExceptionHandler(value = ConverterUnavailableException.class)
+    public ResponseEntity<ApiResponse> handleConverterUnavailableException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Currency conversion is unavailable, try again later")
+                .developerMessage("converter unavailable")
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = InvalidConverterEndpointsException.class)
+    public ResponseEntity<ApiResponse> handleInvalidConverterEndpointsException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("At least one converter endpoint is required")
+                .developerMessage("invalid converter endpoints")
+                .status(HttpStatus.BAD_REQUEST)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = QuoteNotFoundException.class)
+    public ResponseEntity<ApiResponse> handleQuoteNotFoundException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Quote not found or expired")
+                .developerMessage("quote not found")
+                .status(HttpStatus.NOT_FOUND)
+                .statusCode(HttpStatus.NOT_FOUND.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = QuoteMismatchException.class)
+    public ResponseEntity<ApiResponse> handleQuoteMismatchException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Quote does not match the transaction")
+                .developerMessage("quote mismatch")
+                .status(HttpStatus.BAD_REQUEST)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = PessimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handlePessimisticLockingFailureException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Wallet is busy, try again")
+                .developerMessage("wallet lock timeout")
+                .status(HttpStatus.CONFLICT)
+                .statusCode(HttpStatus.CONFLICT.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handleOptimisticLockingFailureException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Wallet changed concurrently, try again")
+                .developerMessage("wallet version conflict")
+                .status(HttpStatus.CONFLICT)
+                .statusCode(HttpStatus.CONFLICT.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ApiResponse> handleIdempotencyKeyInProgressException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("A request with this idempotency key is still in progress")
+                .developerMessage("idempotency key in progress")
+                .status(HttpStatus.CONFLICT)
+                .statusCode(HttpStatus.CONFLICT.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = IdempotencyKeyReusedException.class)
+    public ResponseEntity<ApiResponse> handleIdempotencyKeyReusedException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Idempotency key was already used for a different request")
+                .developerMessage("idempotency key reused")
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .statusCode(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = InvalidBatchException.class)
+    public ResponseEntity<ApiResponse> handleInvalidBatchException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Batch is empty or too large")
+                .developerMessage("invalid batch")
+                .status(HttpStatus.BAD_REQUEST)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = UnsupportedBatchModeException.class)
+    public ResponseEntity<ApiResponse> handleUnsupportedBatchModeException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("All-or-nothing batches are not available while the ledger engine is enabled")
+                .developerMessage("unsupported batch mode")
+                .status(HttpStatus.BAD_REQUEST)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = LedgerJournalFullException.class)
+    public ResponseEntity<ApiResponse> handleLedgerJournalFullException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Ledger is catching up, try again later")
+                .developerMessage("ledger journal full")
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = TransferQueueFullException.class)
+    public ResponseEntity<ApiResponse> handleTransferQueueFullException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Too many transfers in flight, try again later")
+                .developerMessage("transfer queue full")
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = TransferNotFoundException.class)
+    public ResponseEntity<ApiResponse> handleTransferNotFoundException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Transfer not found")
+                .developerMessage("transfer not found")
+                .status(HttpStatus.NOT_FOUND)
+                .statusCode(HttpStatus.NOT_FOUND.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @ExceptionHandler(value = IncompleteTransferException.class)
+    public ResponseEntity<ApiResponse> handleIncompleteTransferException() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Transfer needs both wallets, a receiver and an amount")
+                .developerMessage("incomplete transfer")
+                .status(HttpStatus.BAD_REQUEST)
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.wallet.components;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shards the wallets that changes keep colliding on.
+ */
+@Component
+public class HotWalletDetector {
+    private final WalletContention contention;
+    private final WalletShards walletShards;
+    private final Counter failures;
+    private final long intervalMillis;
+    private final long threshold;
+
+    private ScheduledExecutorService scheduler;
+
+    public HotWalletDetector(
+            WalletContention contention,
+            WalletShards walletShards,
+            MeterRegistry registry,
+            @Value(value = "${application.transactions.sharding.detection.interval-millis}") long intervalMillis,
+            @Value(value = "${application.transactions.sharding.detection.threshold}") long threshold
+    ) {
+        this.contention = contention;
+        this.walletShards = walletShards;
+        this.failures = registry.counter("wallet.sharding.detection.failures");
+        this.intervalMillis = intervalMillis;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!walletShards.isEnabled()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-wallet-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::detect, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    synchronized void detect() {
+        try {
+            walletShards.refresh();
+
+            contention.drain().forEach((walletId, count) -> {
+                if (count >= threshold && !walletShards.isSharded(walletId)) {
+                    walletShards.promote(walletId);
+                }
+            });
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+    }
+}
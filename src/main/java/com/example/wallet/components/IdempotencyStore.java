@@ -0,0 +1,303 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.exceptions.IdempotencyKeyInProgressException;
+import com.example.wallet.exceptions.IdempotencyKeyReusedException;
+import com.example.wallet.models.IdempotencyRecord;
+import com.example.wallet.repository.IdempotencyRecordRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Answers a repeated request carrying the same Idempotency-Key with the
+ * response of its first execution.
+ */
+@Component
+public class IdempotencyStore {
+    private static final long IN_PROGRESS_WAIT_MILLIS = 5_000;
+    private static final long IN_PROGRESS_POLL_MILLIS = 50;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ThreadLocal<Claim> pending = new ThreadLocal<>();
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper mapper;
+    private final long ttl;
+    private final int maxCached;
+    private final long answerTimeout;
+
+    public IdempotencyStore(
+            IdempotencyRecordRepository repository,
+            ObjectMapper mapper,
+            @Value(value = "${application.idempotency.ttl-millis}") long ttl,
+            @Value(value = "${application.idempotency.max-cached}") int maxCached,
+            @Value(value = "${application.idempotency.answer-timeout-millis}") long answerTimeout
+    ) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.ttl = ttl;
+        this.maxCached = maxCached;
+        this.answerTimeout = answerTimeout;
+    }
+
+    public ResponseEntity<ApiResponse> execute(
+            String key,
+            Object request,
+            Supplier<ResponseEntity<ApiResponse>> operation
+    ) {
+        if (key == null || key.isBlank()) {
+            return operation.get();
+        }
+
+        String id = SecurityContextHolder.getContext().getAuthentication().getName() + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry entry = entries.get(id);
+            if (entry != null && entry.expiresAt() <= now) {
+                entries.remove(id, entry);
+                continue;
+            }
+
+            if (entry == null) {
+                IdempotencyRecord record = stored(id, now);
+                if (record != null && record.getStatusCode() == 0) {
+                    return answered(id, fingerprint);
+                }
+                if (record != null) {
+                    entries.putIfAbsent(id, new Entry(record.getFingerprint(),
+                            CompletableFuture.completedFuture(response(record)), record.getExpiresAt()));
+                    continue;
+                }
+
+                Entry created = new Entry(fingerprint, new CompletableFuture<>(), now + ttl);
+                if (entries.putIfAbsent(id, created) == null) {
+                    return run(id, created, operation);
+                }
+                continue;
+            }
+
+            if (!entry.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            return await(entry.response());
+        }
+    }
+
+    /**
+     * Inserts the key of the request running on this thread in the current
+     * transaction.
+     */
+    public void claim() {
+        Claim claim = pending.get();
+        if (claim == null || claim.written || claim.committed) {
+            return;
+        }
+
+        try {
+            repository.deleteExpired(claim.id, System.currentTimeMillis());
+            repository.claim(claim.id, claim.fingerprint, claim.expiresAt, System.currentTimeMillis());
+        } catch (DataIntegrityViolationException e) {
+            claim.collided = true;
+            throw e;
+        }
+        claim.written = true;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                claim.written = false;
+                claim.committed = status == STATUS_COMMITTED;
+            }
+        });
+    }
+
+    private ResponseEntity<ApiResponse> run(String id, Entry entry, Supplier<ResponseEntity<ApiResponse>> operation) {
+        Claim claim = new Claim(id, entry.fingerprint(), entry.expiresAt());
+        pending.set(claim);
+        ResponseEntity<ApiResponse> response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            entries.remove(id, entry);
+            RuntimeException failure = e;
+            if (claim.collided) {
+                try {
+                    response = answered(id, entry.fingerprint());
+                    entry.response().complete(response);
+                    return response;
+                } catch (RuntimeException other) {
+                    failure = other;
+                }
+            }
+            entry.response().completeExceptionally(failure);
+            throw failure;
+        } finally {
+            pending.remove();
+        }
+
+        entry.response().complete(response);
+        if (claim.committed) {
+            repository.answer(id, response.getStatusCode().value(), write(response.getBody()));
+        } else {
+            repository.save(IdempotencyRecord.builder()
+                    .id(id)
+                    .fingerprint(entry.fingerprint())
+                    .statusCode(response.getStatusCode().value())
+                    .response(write(response.getBody()))
+                    .expiresAt(entry.expiresAt())
+                    .build());
+        }
+        evict();
+
+        return response;
+    }
+
+    private IdempotencyRecord stored(String id, long now) {
+        return repository.findById(id)
+                .filter(record -> record.getExpiresAt() > now)
+                .orElse(null);
+    }
+
+    /**
+     * A claim is only visible once its change has committed, so one still
+     * unanswered after the answer timeout belongs to a request that died before
+     * answering; it is answered as already processed.
+     */
+    private ResponseEntity<ApiResponse> answered(String id, String fingerprint) {
+        long deadline = System.currentTimeMillis() + IN_PROGRESS_WAIT_MILLIS;
+        while (true) {
+            long now = System.currentTimeMillis();
+            IdempotencyRecord record = stored(id, now);
+            if (record != null && !record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            if (record != null && record.getStatusCode() != 0) {
+                return response(record);
+            }
+            if (record != null && record.getClaimedAt() != null && record.getClaimedAt() + answerTimeout <= now) {
+                return recovered(id);
+            }
+            if (now >= deadline) {
+                throw new IdempotencyKeyInProgressException();
+            }
+
+            try {
+                Thread.sleep(IN_PROGRESS_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException();
+            }
+        }
+    }
+
+    private ResponseEntity<ApiResponse> recovered(String id) {
+        ApiResponse response = ApiResponse.builder()
+                .message("Request already processed")
+                .developerMessage("idempotent request committed without an answer")
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .build();
+        if (repository.answer(id, response.getStatusCode(), write(response)) == 0) {
+            IdempotencyRecord record = repository.findById(id).orElse(null);
+            if (record != null && record.getStatusCode() != 0) {
+                return response(record);
+            }
+        }
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    private ResponseEntity<ApiResponse> response(IdempotencyRecord record) {
+        return ResponseEntity.status(record.getStatusCode()).body(read(record.getResponse()));
+    }
+
+    private void evict() {
+        if (entries.size() <= maxCached) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (entries.size() > maxCached) {
+            entries.values().removeIf(entry -> entry.response().isDone());
+        }
+        repository.deleteAllByExpiresAtBefore(now);
+    }
+
+    private static ResponseEntity<ApiResponse> await(CompletableFuture<ResponseEntity<ApiResponse>> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(mapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String write(ApiResponse response) {
+        try {
+            return mapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ApiResponse read(String response) {
+        try {
+            return mapper.readValue(response, ApiResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Claim {
+        private final String id;
+        private final String fingerprint;
+        private final long expiresAt;
+        private boolean written;
+        private boolean committed;
+        private boolean collided;
+
+        private Claim(String id, String fingerprint, long expiresAt) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<ApiResponse>> response, long expiresAt) {
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.LedgerRecord;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LedgerRecordType;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.exceptions.LedgerJournalFullException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.exceptions.TransactionForSameWalletException;
+import com.example.wallet.exceptions.UnauthorizedWalletAccessException;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional in-memory authority for wallet balances, journaled to disk and
+ * projected into the database.
+ */
+@Component
+public class LedgerEngine {
+    private static final int SNAPSHOT_MAGIC = 0x4c454447;
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+    private final WalletRepository walletRepository;
+    private final LedgerProjector projector;
+    private final boolean enabled;
+    private final ReentrantLock[] partitions;
+    private final Path journalPath;
+    private final long journalSizeBytes;
+    private final long fsyncIntervalMillis;
+    private final Path snapshotPath;
+    private final long snapshotIntervalMillis;
+
+    private final Object appendLock = new Object();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+
+    private volatile Accounts accounts = new Accounts(0);
+    private volatile boolean ready;
+    private LedgerJournal journal;
+    private ScheduledExecutorService scheduler;
+
+    public LedgerEngine(
+            WalletRepository walletRepository,
+            LedgerProjector projector,
+            @Value(value = "${application.ledger.engine.enabled}") boolean enabled,
+            @Value(value = "${application.ledger.engine.partitions}") int partitions,
+            @Value(value = "${application.ledger.journal.path}") String journalPath,
+            @Value(value = "${application.ledger.journal.size-bytes}") long journalSizeBytes,
+            @Value(value = "${application.ledger.journal.fsync-interval-millis}") long fsyncIntervalMillis,
+            @Value(value = "${application.ledger.snapshot.path}") String snapshotPath,
+            @Value(value = "${application.ledger.snapshot.interval-millis}") long snapshotIntervalMillis
+    ) {
+        this.walletRepository = walletRepository;
+        this.projector = projector;
+        this.enabled = enabled;
+        this.partitions = new ReentrantLock[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new ReentrantLock();
+        }
+        this.journalPath = Paths.get(journalPath);
+        this.journalSizeBytes = journalSizeBytes;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Wallet> wallets = walletRepository.findAllWithUsers();
+        long maxId = wallets.stream().mapToLong(Wallet::getId).max().orElse(0);
+        Accounts recovered = new Accounts((int) maxId + 1);
+        for (Wallet wallet : wallets) {
+            int id = Math.toIntExact(wallet.getId());
+            recovered.currencies[id] = wallet.getMoney().getCurrency();
+            recovered.owners[id] = wallet.getUser().getId();
+            recovered.usernames[id] = wallet.getUser().getUsername();
+            recovered.balances[id] = wallet.getMoney().getAmountMinor();
+        }
+
+        long watermark = projector.watermark();
+        long base = watermark;
+        if (Files.exists(snapshotPath)) {
+            base = readSnapshot(recovered);
+        }
+
+        journal = new LedgerJournal(journalPath, journalSizeBytes);
+        List<LedgerRecord> records = journal.records();
+        for (LedgerRecord record : records) {
+            if (record.seq() > base) {
+                recovered.apply(record);
+            }
+        }
+        projector.project(records.stream().filter(record -> record.seq() > watermark).toList());
+
+        accounts = recovered;
+        journal.startAfter(Math.max(base, watermark));
+        writeSnapshot(journal.lastSeq(), recovered);
+        journal.reset();
+        projector.start(journal.lastSeq());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(journal::force, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::snapshot, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        ready = true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!ready) {
+            return;
+        }
+        ready = false;
+        scheduler.shutdownNow();
+
+        lockAll();
+        try {
+            journal.force();
+            if (projector.flush(FLUSH_TIMEOUT_MILLIS)) {
+                journal.reset();
+                Files.deleteIfExists(snapshotPath);
+            }
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    public void open(Wallet wallet) {
+        int id = Math.toIntExact(wallet.getId());
+        if (id >= accounts.balances.length) {
+            lockAll();
+            try {
+                if (id >= accounts.balances.length) {
+                    accounts = accounts.grow(Math.max(id + 1, accounts.balances.length * 2));
+                }
+            } finally {
+                unlockAll();
+            }
+        }
+
+        ReentrantLock lock = partition(id);
+        lock.lock();
+        try {
+            Accounts current = accounts;
+            current.currencies[id] = wallet.getMoney().getCurrency();
+            current.owners[id] = wallet.getUser().getId();
+            current.usernames[id] = wallet.getUser().getUsername();
+            current.balances[id] = wallet.getMoney().getAmountMinor();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Currency currency(Long walletId) {
+        Accounts current = accounts;
+        return walletId == null || walletId < 0 || walletId >= current.balances.length
+                ? null
+                : current.currencies[walletId.intValue()];
+    }
+
+    public Money balance(Long walletId) {
+        Currency currency = currency(walletId);
+        if (currency == null) {
+            throw new UnauthorizedWalletAccessException();
+        }
+        return Money.ofMinor(accounts.balances[walletId.intValue()], currency);
+    }
+
+    public LedgerRecord transfer(
+            String sender,
+            Long sendingWalletId,
+            String receiver,
+            Long receivingWalletId,
+            long debitMinor,
+            long creditMinor,
+            long feeMinor
+    ) {
+        if (Objects.equals(sendingWalletId, receivingWalletId)) {
+            throw new TransactionForSameWalletException();
+        }
+        if (debitMinor < 1 || creditMinor < 1) {
+            throw new InvalidAmountException();
+        }
+        int from = owned(sendingWalletId, sender);
+        int to = owned(receivingWalletId, receiver);
+
+        ReentrantLock first = partitions[Math.min(from % partitions.length, to % partitions.length)];
+        ReentrantLock second = partitions[Math.max(from % partitions.length, to % partitions.length)];
+        first.lock();
+        second.lock();
+        try {
+            Accounts current = accounts;
+            if (current.balances[from] - debitMinor - feeMinor < 0) {
+                throw new OverWithdrawalException();
+            }
+
+            return append(new LedgerRecord(0, LedgerRecordType.TRANSFER, System.currentTimeMillis(),
+                    from, to, debitMinor, creditMinor, feeMinor,
+                    current.currencies[from], current.currencies[to], current.owners[from], current.owners[to]
+            ), current);
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    public LedgerRecord deposit(String username, Long walletId, long amountMinor) {
+        if (amountMinor < 1) {
+            throw new InvalidAmountException();
+        }
+        int id = owned(walletId, username);
+
+        ReentrantLock lock = partition(id);
+        lock.lock();
+        try {
+            Accounts current = accounts;
+            return append(new LedgerRecord(0, LedgerRecordType.DEPOSIT, System.currentTimeMillis(),
+                    0, id, 0, amountMinor, 0, null, current.currencies[id], 0, current.owners[id]), current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public LedgerRecord withdraw(String username, Long walletId, long amountMinor) {
+        if (amountMinor < 1) {
+            throw new InvalidAmountException();
+        }
+        int id = owned(walletId, username);
+
+        ReentrantLock lock = partition(id);
+        lock.lock();
+        try {
+            Accounts current = accounts;
+            if (current.balances[id] - amountMinor < 0) {
+                throw new OverWithdrawalException();
+            }
+            return append(new LedgerRecord(0, LedgerRecordType.WITHDRAW, System.currentTimeMillis(),
+                    id, 0, amountMinor, 0, 0, current.currencies[id], null, current.owners[id], 0), current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds the locks only to copy the balances; the flush and the write run
+     * outside them.
+     */
+    void snapshot() {
+        snapshotScheduled.set(false);
+        if (!ready) {
+            return;
+        }
+
+        long seq;
+        Accounts copy;
+        lockAll();
+        try {
+            seq = journal.lastSeq();
+            copy = accounts.copy();
+        } finally {
+            unlockAll();
+        }
+
+        try {
+            if (!projector.flush(FLUSH_TIMEOUT_MILLIS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        journal.force();
+        writeSnapshot(seq, copy);
+        journal.discardThrough(seq);
+    }
+
+    private LedgerRecord append(LedgerRecord record, Accounts current) {
+        if (!ready) {
+            throw new IllegalStateException("Ledger engine is not ready");
+        }
+
+        LedgerRecord sequenced;
+        synchronized (appendLock) {
+            if (journal.remaining() == 0) {
+                scheduleSnapshot();
+                throw new LedgerJournalFullException();
+            }
+            sequenced = journal.append(record);
+            projector.submit(sequenced);
+        }
+        current.apply(sequenced);
+
+        if (journal.remaining() < journal.capacity() / 4) {
+            scheduleSnapshot();
+        }
+        return sequenced;
+    }
+
+    private void scheduleSnapshot() {
+        if (snapshotScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::snapshot);
+        }
+    }
+
+    private int owned(Long walletId, String username) {
+        Accounts current = accounts;
+        if (currency(walletId) == null || !Objects.equals(current.usernames[walletId.intValue()], username)) {
+            throw new UnauthorizedWalletAccessException();
+        }
+        return walletId.intValue();
+    }
+
+    private ReentrantLock partition(int walletId) {
+        return partitions[walletId % partitions.length];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : partitions) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = partitions.length - 1; i >= 0; i--) {
+            partitions[i].unlock();
+        }
+    }
+
+    private long readSnapshot(Accounts into) {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshotPath))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Not a ledger snapshot: " + snapshotPath);
+            }
+            long seq = in.readLong();
+            int count = in.readInt();
+
+            Arrays.fill(into.balances, 0L);
+            for (int i = 0; i < count; i++) {
+                int id = Math.toIntExact(in.readLong());
+                long balance = in.readLong();
+                if (id < into.balances.length) {
+                    into.balances[id] = balance;
+                }
+            }
+            return seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeSnapshot(long seq, Accounts current) {
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            if (snapshotPath.getParent() != null) {
+                Files.createDirectories(snapshotPath.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+                int count = 0;
+                for (Currency currency : current.currencies) {
+                    if (currency != null) {
+                        count++;
+                    }
+                }
+
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(seq);
+                out.writeInt(count);
+                for (int id = 0; id < current.balances.length; id++) {
+                    if (current.currencies[id] != null) {
+                        out.writeLong(id);
+                        out.writeLong(current.balances[id]);
+                    }
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Accounts {
+        private final long[] balances;
+        private final Currency[] currencies;
+        private final long[] owners;
+        private final String[] usernames;
+
+        private Accounts(int size) {
+            this(new long[size], new Currency[size], new long[size], new String[size]);
+        }
+
+        private Accounts(long[] balances, Currency[] currencies, long[] owners, String[] usernames) {
+            this.balances = balances;
+            this.currencies = currencies;
+            this.owners = owners;
+            this.usernames = usernames;
+        }
+
+        private Accounts copy() {
+            return grow(balances.length);
+        }
+
+        private Accounts grow(int size) {
+            return new Accounts(
+                    Arrays.copyOf(balances, size),
+                    Arrays.copyOf(currencies, size),
+                    Arrays.copyOf(owners, size),
+                    Arrays.copyOf(usernames, size)
+            );
+        }
+
+        private void apply(LedgerRecord record) {
+            switch (record.type()) {
+                case TRANSFER -> {
+                    balances[(int) record.debitWalletId()] -= record.debitMinor() + record.feeMinor();
+                    balances[(int) record.creditWalletId()] += record.creditMinor();
+                }
+                case DEPOSIT -> balances[(int) record.creditWalletId()] += record.creditMinor();
+                case WITHDRAW -> balances[(int) record.debitWalletId()] -= record.debitMinor();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.TransactionType;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.models.Wallet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps wallet balances as an append-only list of events instead of updating
+ * the wallet row.
+ */
+@Component
+public class LedgerEventStore {
+    private static final String LATEST_SNAPSHOT = "SELECT seq, balance_minor FROM balance_snapshots "
+            + "WHERE wallet_id = ? ORDER BY seq DESC LIMIT 1";
+    private static final String EVENTS_AFTER = "SELECT COALESCE(MAX(seq), ?), COALESCE(SUM(amount_minor), 0) "
+            + "FROM ledger_events WHERE wallet_id = ? AND seq > ?";
+    private static final String INSERT_EVENT = "INSERT INTO ledger_events "
+            + "(wallet_id, seq, amount_minor, currency, type, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SNAPSHOT = "INSERT INTO balance_snapshots "
+            + "(wallet_id, seq, balance_minor) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int snapshotEvery;
+
+    public LedgerEventStore(
+            JdbcTemplate jdbcTemplate,
+            @Value(value = "${application.ledger.events.enabled}") boolean enabled,
+            @Value(value = "${application.ledger.events.snapshot-every}") int snapshotEvery
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Head head(Wallet wallet) {
+        List<Head> snapshots = jdbcTemplate.query(LATEST_SNAPSHOT,
+                (row, index) -> new Head(row.getLong(1), row.getLong(2)), wallet.getId());
+        Head base = snapshots.isEmpty() ? new Head(0, wallet.getMoney().getAmountMinor()) : snapshots.get(0);
+
+        return jdbcTemplate.queryForObject(EVENTS_AFTER,
+                (row, index) -> new Head(row.getLong(1), base.balanceMinor() + row.getLong(2)),
+                base.seq(), wallet.getId(), base.seq());
+    }
+
+    public Money balance(Wallet wallet) {
+        return Money.ofMinor(head(wallet).balanceMinor(), wallet.getMoney().getCurrency());
+    }
+
+    public Head append(Wallet wallet, Head head, long amountMinor, TransactionType type, long timestamp) {
+        Head next = new Head(head.seq() + 1, head.balanceMinor() + amountMinor);
+        if (next.balanceMinor() < 0) {
+            throw new OverWithdrawalException();
+        }
+
+        try {
+            jdbcTemplate.update(INSERT_EVENT, wallet.getId(), next.seq(), amountMinor,
+                    wallet.getMoney().getCurrency().name(), type.name(), timestamp);
+        } catch (DuplicateKeyException e) {
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, wallet.getId(), e);
+        }
+        if (next.seq() % snapshotEvery == 0) {
+            jdbcTemplate.update(INSERT_SNAPSHOT, wallet.getId(), next.seq(), next.balanceMinor());
+        }
+
+        return next;
+    }
+
+    public record Head(long seq, long balanceMinor) {
+    }
+}
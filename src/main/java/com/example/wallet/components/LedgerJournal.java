@@ -0,0 +1,194 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.LedgerRecord;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LedgerRecordType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of ledger records in a memory-mapped file.
+ */
+public class LedgerJournal implements Closeable {
+    static final int RECORD_BYTES = 88;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final LedgerRecordType[] TYPES = LedgerRecordType.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private int position;
+    private long lastSeq;
+
+    public LedgerJournal(Path path, long sizeBytes) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.capacity = (int) Math.min(sizeBytes / RECORD_BYTES, Integer.MAX_VALUE / RECORD_BYTES);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        while (position < capacity) {
+            LedgerRecord record = read(position);
+            if (record == null) {
+                break;
+            }
+            lastSeq = Math.max(lastSeq, record.seq());
+            position++;
+        }
+    }
+
+    public synchronized List<LedgerRecord> records() {
+        List<LedgerRecord> records = new ArrayList<>(position);
+        long previous = 0;
+        for (int slot = 0; slot < position; slot++) {
+            LedgerRecord record = read(slot);
+            if (record.seq() > previous) {
+                records.add(record);
+                previous = record.seq();
+            }
+        }
+        return records;
+    }
+
+    public synchronized LedgerRecord append(LedgerRecord record) {
+        if (position >= capacity) {
+            throw new IllegalStateException("Ledger journal is full");
+        }
+
+        LedgerRecord sequenced = record.withSeq(lastSeq + 1);
+        write(position, sequenced);
+        lastSeq = sequenced.seq();
+        position++;
+        return sequenced;
+    }
+
+    public synchronized void startAfter(long seq) {
+        lastSeq = Math.max(lastSeq, seq);
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    public synchronized int remaining() {
+        return capacity - position;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    public synchronized void reset() {
+        for (int offset = 0; offset < position * RECORD_BYTES; offset += Long.BYTES) {
+            buffer.putLong(offset, 0L);
+        }
+        buffer.force();
+        position = 0;
+    }
+
+    public synchronized void discardThrough(long seq) {
+        int first = 0;
+        while (first < position && read(first).seq() <= seq) {
+            first++;
+        }
+        if (first == 0) {
+            return;
+        }
+
+        int kept = position - first;
+        for (int slot = 0; slot < kept; slot++) {
+            buffer.put(slot * RECORD_BYTES, buffer, (first + slot) * RECORD_BYTES, RECORD_BYTES);
+        }
+        for (int offset = kept * RECORD_BYTES; offset < position * RECORD_BYTES; offset += Long.BYTES) {
+            buffer.putLong(offset, 0L);
+        }
+        buffer.force();
+        position = kept;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(int slot, LedgerRecord record) {
+        int offset = slot * RECORD_BYTES;
+        buffer.putLong(offset, record.seq());
+        buffer.put(offset + 8, (byte) record.type().ordinal());
+        buffer.put(offset + 9, currencyCode(record.debitCurrency()));
+        buffer.put(offset + 10, currencyCode(record.creditCurrency()));
+        buffer.putLong(offset + 16, record.timestamp());
+        buffer.putLong(offset + 24, record.debitWalletId());
+        buffer.putLong(offset + 32, record.creditWalletId());
+        buffer.putLong(offset + 40, record.debitMinor());
+        buffer.putLong(offset + 48, record.creditMinor());
+        buffer.putLong(offset + 56, record.feeMinor());
+        buffer.putLong(offset + 64, record.debitOwnerId());
+        buffer.putLong(offset + 72, record.creditOwnerId());
+        buffer.putInt(offset + 80, checksum(offset));
+    }
+
+    private LedgerRecord read(int slot) {
+        int offset = slot * RECORD_BYTES;
+        long seq = buffer.getLong(offset);
+        if (seq <= 0 || buffer.getInt(offset + 80) != checksum(offset)) {
+            return null;
+        }
+
+        return new LedgerRecord(
+                seq,
+                TYPES[buffer.get(offset + 8)],
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                buffer.getLong(offset + 40),
+                buffer.getLong(offset + 48),
+                buffer.getLong(offset + 56),
+                currency(buffer.get(offset + 9)),
+                currency(buffer.get(offset + 10)),
+                buffer.getLong(offset + 64),
+                buffer.getLong(offset + 72)
+        );
+    }
+
+    private int checksum(int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, 80));
+        return (int) crc.getValue();
+    }
+
+    private static byte currencyCode(Currency currency) {
+        return currency == null ? 0 : (byte) (currency.ordinal() + 1);
+    }
+
+    private static Currency currency(byte code) {
+        return code == 0 ? null : CURRENCIES[code - 1];
+    }
+}
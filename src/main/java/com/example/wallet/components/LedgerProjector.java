@@ -0,0 +1,209 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.LedgerRecord;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.TransactionType;
+import com.example.wallet.models.LedgerProjection;
+import com.example.wallet.models.PassbookEntry;
+import com.example.wallet.models.Transaction;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.LedgerProjectionRepository;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Copies the ledger engine's records into the database in the background.
+ */
+@Component
+public class LedgerProjector {
+    private static final String UPDATE_BALANCE =
+            "UPDATE wallets SET amount_minor = amount_minor + ?, version = version + 1 WHERE id = ?";
+
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferBatchWriter batchWriter;
+    private final LedgerProjectionRepository projectionRepository;
+    private final int maxBatch;
+    private final long retryMillis;
+
+    private final BlockingQueue<LedgerRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread projector;
+
+    private volatile boolean running;
+    private long submitted;
+    private long projected;
+
+    public LedgerProjector(
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            TransferBatchWriter batchWriter,
+            LedgerProjectionRepository projectionRepository,
+            @Value(value = "${application.ledger.projection.max-batch}") int maxBatch,
+            @Value(value = "${application.ledger.projection.retry-millis}") long retryMillis
+    ) {
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchWriter = batchWriter;
+        this.projectionRepository = projectionRepository;
+        this.maxBatch = maxBatch;
+        this.retryMillis = retryMillis;
+        this.projector = new Thread(this::run, "ledger-projector");
+        this.projector.setDaemon(true);
+    }
+
+    public synchronized void start(long seq) {
+        submitted = seq;
+        projected = seq;
+        if (!running) {
+            running = true;
+            projector.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        projector.interrupt();
+    }
+
+    public long watermark() {
+        return projectionRepository.findById(LedgerProjection.ID).map(LedgerProjection::getSeq).orElse(0L);
+    }
+
+    public void submit(LedgerRecord record) {
+        synchronized (this) {
+            submitted = record.seq();
+        }
+        queue.add(record);
+    }
+
+    /**
+     * Waits until every record submitted so far is in the database.
+     */
+    public synchronized boolean flush(long timeoutMillis) throws InterruptedException {
+        long target = submitted;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (projected < target) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    public void project(List<LedgerRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Long> deltas = new TreeMap<>();
+            List<PassbookEntry> entries = new ArrayList<>();
+            List<Transaction> transactions = new ArrayList<>();
+
+            for (LedgerRecord record : records) {
+                switch (record.type()) {
+                    case TRANSFER -> {
+                        deltas.merge(record.debitWalletId(), -record.debitMinor() - record.feeMinor(), Long::sum);
+                        deltas.merge(record.creditWalletId(), record.creditMinor(), Long::sum);
+                        PassbookEntry senderEntry = entry(record, record.debitWalletId(), record.debitMinor(),
+                                record.debitCurrency(), TransactionType.TRANSFERRED);
+                        PassbookEntry receiverEntry = entry(record, record.creditWalletId(), record.creditMinor(),
+                                record.creditCurrency(), TransactionType.RECEIVED);
+                        entries.add(senderEntry);
+                        entries.add(receiverEntry);
+                        transactions.add(Transaction.builder()
+                                .sender(User.builder().id(record.debitOwnerId()).build())
+                                .receiver(User.builder().id(record.creditOwnerId()).build())
+                                .senderEntry(senderEntry)
+                                .receiverEntry(receiverEntry)
+                                .build());
+                    }
+                    case DEPOSIT -> {
+                        deltas.merge(record.creditWalletId(), record.creditMinor(), Long::sum);
+                        entries.add(entry(record, record.creditWalletId(), record.creditMinor(),
+                                record.creditCurrency(), TransactionType.DEPOSIT));
+                    }
+                    case WITHDRAW -> {
+                        deltas.merge(record.debitWalletId(), -record.debitMinor(), Long::sum);
+                        entries.add(entry(record, record.debitWalletId(), record.debitMinor(),
+                                record.debitCurrency(), TransactionType.WITHDRAW));
+                    }
+                }
+            }
+
+            List<Object[]> updates = new ArrayList<>(deltas.size());
+            deltas.forEach((walletId, delta) -> updates.add(new Object[]{delta, walletId}));
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, updates);
+            batchWriter.insertEntries(entries);
+            batchWriter.insertTransactions(transactions);
+            projectionRepository.save(new LedgerProjection(LedgerProjection.ID, records.get(records.size() - 1).seq()));
+        });
+    }
+
+    private void run() {
+        List<LedgerRecord> batch = new ArrayList<>(maxBatch);
+
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+
+                while (true) {
+                    try {
+                        project(batch);
+                        break;
+                    } catch (RuntimeException e) {
+                        Thread.sleep(retryMillis);
+                    }
+                }
+
+                synchronized (this) {
+                    projected = batch.get(batch.size() - 1).seq();
+                    notifyAll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            batch.clear();
+        }
+    }
+
+    private static PassbookEntry entry(
+            LedgerRecord record,
+            long walletId,
+            long amountMinor,
+            Currency currency,
+            TransactionType type
+    ) {
+        double serviceCharge = type == TransactionType.TRANSFERRED
+                ? Money.ofMinor(record.feeMinor(), currency).getAmount()
+                : 0.0;
+
+        return PassbookEntry.builder()
+                .timestamp(record.timestamp())
+                .wallet(Wallet.builder().id(walletId).build())
+                .money(Money.ofMinor(amountMinor, currency))
+                .serviceCharge(serviceCharge)
+                .type(type)
+                .build();
+    }
+}
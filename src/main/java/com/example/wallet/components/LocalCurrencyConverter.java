@@ -0,0 +1,104 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.CurrencyRatesChangedEvent;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.CurrencyNotFoundException;
+import com.example.wallet.repository.CurrencyRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts in-process from the rates stored in the currencies table.
+ */
+@Component
+public class LocalCurrencyConverter implements CurrencyConverter {
+    private final CurrencyRepository currencyRepository;
+    private final CurrencyConversionClient conversionClient;
+    private final boolean fallback;
+
+    private final AtomicReference<RateMatrix> snapshot = new AtomicReference<>(RateMatrix.EMPTY);
+
+    public LocalCurrencyConverter(
+            CurrencyRepository currencyRepository,
+            CurrencyConversionClient conversionClient,
+            @Value(value = "${application.converter.fallback}") boolean fallback
+    ) {
+        this.currencyRepository = currencyRepository;
+        this.conversionClient = conversionClient;
+        this.fallback = fallback;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        snapshot.set(RateMatrix.of(currencyRepository.findAll()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onRatesChanged(CurrencyRatesChangedEvent event) {
+        load();
+    }
+
+    public RateMatrix snapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public double rate(Currency from, Currency to) {
+        RateMatrix matrix = snapshot.get();
+        if (matrix.supports(from, to)) {
+            return matrix.rate(from, to);
+        }
+        if (fallback) {
+            return conversionClient.rate(from, to);
+        }
+
+        throw new CurrencyNotFoundException();
+    }
+
+    @Override
+    public Money convert(Money money, Currency to) {
+        RateMatrix matrix = snapshot.get();
+        if (matrix.supports(money.getCurrency(), to)) {
+            return price(matrix, money, to);
+        }
+        if (fallback) {
+            return conversionClient.convert(money, to);
+        }
+
+        throw new CurrencyNotFoundException();
+    }
+
+    @Override
+    public CompletableFuture<Money> convertAsync(Money money, Currency to) {
+        RateMatrix matrix = snapshot.get();
+        if (matrix.supports(money.getCurrency(), to)) {
+            return CompletableFuture.completedFuture(price(matrix, money, to));
+        }
+        if (fallback) {
+            return conversionClient.convertAsync(money, to);
+        }
+
+        return CompletableFuture.failedFuture(new CurrencyNotFoundException());
+    }
+
+    @Override
+    public long ratesRevision() {
+        return fallback ? conversionClient.ratesRevision() : 0;
+    }
+
+    private static Money price(RateMatrix matrix, Money money, Currency to) {
+        return money.convertedAt(matrix.rate(money.getCurrency(), to), to);
+    }
+}
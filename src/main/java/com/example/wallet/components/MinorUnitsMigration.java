@@ -0,0 +1,57 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves balances written before {@link com.example.wallet.dto.Money} was kept
+ * in minor units.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class MinorUnitsMigration implements InitializingBean {
+    private static final List<String> TABLES = List.of("wallets", "entry");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String table : TABLES) {
+            if (hasColumn(table, "amount")) {
+                transactionTemplate.executeWithoutResult(status -> migrate(table));
+            }
+        }
+    }
+
+    private void migrate(String table) {
+        for (Currency currency : Currency.values()) {
+            jdbcTemplate.update(
+                    "UPDATE " + table + " SET amount_minor = ROUND(amount * ?) WHERE currency = ?",
+                    Math.pow(10, currency.getScale()),
+                    currency.name()
+            );
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN amount");
+    }
+
+    private boolean hasColumn(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE LOWER(table_name) = ? AND LOWER(column_name) = ?",
+                Integer.class,
+                table,
+                column
+        );
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Quote;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Issued quotes, kept in memory until they expire.
+ */
+@Component
+public class QuoteStore {
+    private final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+    private final Queue<String> issued = new ConcurrentLinkedQueue<>();
+
+    private final long ttl;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    @Autowired
+    public QuoteStore(
+            @Value(value = "${application.quotes.ttl-millis}") long ttl,
+            @Value(value = "${application.quotes.max-size}") int maxSize
+    ) {
+        this(ttl, maxSize, System::currentTimeMillis);
+    }
+
+    QuoteStore(long ttl, int maxSize, LongSupplier clock) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public synchronized Quote issue(Quote quote) {
+        long now = clock.getAsLong();
+        evict(now);
+
+        quote.setQuoteId(UUID.randomUUID().toString());
+        quote.setExpiresAt(now + ttl);
+        quotes.put(quote.getQuoteId(), quote);
+        issued.add(quote.getQuoteId());
+
+        return quote;
+    }
+
+    public Optional<Quote> find(String quoteId) {
+        Quote quote = quotes.get(quoteId);
+        if (quote == null) {
+            return Optional.empty();
+        }
+        if (quote.getExpiresAt() <= clock.getAsLong()) {
+            quotes.remove(quoteId);
+            return Optional.empty();
+        }
+
+        return Optional.of(quote);
+    }
+
+    /**
+     * Takes the quote out of the store, so no other transfer can settle against
+     * it.
+     */
+    public Optional<Quote> claim(String quoteId) {
+        Quote quote = quotes.remove(quoteId);
+        if (quote == null || quote.getExpiresAt() <= clock.getAsLong()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(quote);
+    }
+
+    public void restore(Quote quote) {
+        if (quote.getExpiresAt() > clock.getAsLong()) {
+            quotes.putIfAbsent(quote.getQuoteId(), quote);
+        }
+    }
+
+    public int size() {
+        return quotes.size();
+    }
+
+    private void evict(long now) {
+        String oldest;
+        while ((oldest = issued.peek()) != null) {
+            Quote quote = quotes.get(oldest);
+            if (quote != null && quote.getExpiresAt() > now && quotes.size() < maxSize) {
+                return;
+            }
+            issued.poll();
+            quotes.remove(oldest);
+        }
+    }
+}
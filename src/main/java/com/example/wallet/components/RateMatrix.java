@@ -0,0 +1,60 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.models.CurrencyValue;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable cross-rate table indexed by {@link Currency} ordinal.
+ */
+public final class RateMatrix {
+    private static final int CURRENCIES = Currency.values().length;
+
+    public static final RateMatrix EMPTY = of(List.of());
+
+    private final double[] rates;
+
+    private RateMatrix(double[] rates) {
+        this.rates = rates;
+    }
+
+    public static RateMatrix of(List<CurrencyValue> values) {
+        Map<Currency, Double> worth = new EnumMap<>(Currency.class);
+        for (CurrencyValue value : values) {
+            worth.put(value.getCurrency(), value.getValue());
+        }
+
+        return of(worth);
+    }
+
+    public static RateMatrix of(Map<Currency, Double> values) {
+        double[] worth = new double[CURRENCIES];
+        Arrays.fill(worth, Double.NaN);
+        for (Map.Entry<Currency, Double> value : values.entrySet()) {
+            if (value.getValue() > 0) {
+                worth[value.getKey().ordinal()] = value.getValue();
+            }
+        }
+
+        double[] rates = new double[CURRENCIES * CURRENCIES];
+        for (int from = 0; from < CURRENCIES; from++) {
+            for (int to = 0; to < CURRENCIES; to++) {
+                rates[from * CURRENCIES + to] = from == to ? 1.0 : worth[from] / worth[to];
+            }
+        }
+
+        return new RateMatrix(rates);
+    }
+
+    public boolean supports(Currency from, Currency to) {
+        return !Double.isNaN(rate(from, to));
+    }
+
+    public double rate(Currency from, Currency to) {
+        return rates[from.ordinal() * CURRENCIES + to.ordinal()];
+    }
+}
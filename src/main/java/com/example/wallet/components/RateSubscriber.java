@@ -0,0 +1,135 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+
+import converter.CurrencyGrpc;
+import converter.CurrencyRate;
+import converter.RateSubscription;
+import converter.RateUpdate;
+
+import io.grpc.Channel;
+import io.grpc.Context;
+import io.grpc.stub.StreamObserver;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link RateMatrix} current from the converter's SubscribeRates
+ * stream.
+ */
+public class RateSubscriber {
+    private final Supplier<Channel> channels;
+    private final ScheduledExecutorService scheduler;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final AtomicReference<RateMatrix> snapshot = new AtomicReference<>(RateMatrix.EMPTY);
+    private final Map<Currency, Double> values = new EnumMap<>(Currency.class);
+
+    private volatile long updatedAt;
+    private volatile long updates;
+    private volatile boolean running;
+    private long backoffMillis;
+    private Context.CancellableContext call;
+
+    public RateSubscriber(
+            Supplier<Channel> channels,
+            ScheduledExecutorService scheduler,
+            long initialBackoffMillis,
+            long maxBackoffMillis
+    ) {
+        this.channels = channels;
+        this.scheduler = scheduler;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.backoffMillis = initialBackoffMillis;
+    }
+
+    public synchronized void start() {
+        running = true;
+        subscribe();
+    }
+
+    public synchronized void shutdown() {
+        running = false;
+        if (call != null) {
+            call.cancel(null);
+        }
+    }
+
+    public RateMatrix snapshot() {
+        return snapshot.get();
+    }
+
+    public long updates() {
+        return updates;
+    }
+
+    public long age() {
+        long last = updatedAt;
+        return last == 0 ? Long.MAX_VALUE : System.currentTimeMillis() - last;
+    }
+
+    private synchronized void subscribe() {
+        if (!running) {
+            return;
+        }
+
+        Context.CancellableContext context = Context.current().withCancellation();
+        call = context;
+        try {
+            context.run(() -> CurrencyGrpc.newStub(channels.get())
+                    .subscribeRates(RateSubscription.getDefaultInstance(), new StreamObserver<>() {
+                        @Override
+                        public void onNext(RateUpdate update) {
+                            apply(update);
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            resubscribe(context);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            resubscribe(context);
+                        }
+                    }));
+        } catch (RuntimeException e) {
+            // No endpoint to subscribe to; retried like a dropped stream.
+            resubscribe(context);
+        }
+    }
+
+    private synchronized void apply(RateUpdate update) {
+        for (CurrencyRate rate : update.getRatesList()) {
+            try {
+                values.put(Currency.valueOf(rate.getCurrency()), rate.getValue());
+            } catch (IllegalArgumentException e) {
+                // currency unknown to the wallet, nothing can be priced in it
+            }
+        }
+
+        snapshot.set(RateMatrix.of(values));
+        updatedAt = System.currentTimeMillis();
+        updates++;
+        backoffMillis = initialBackoffMillis;
+    }
+
+    private synchronized void resubscribe(Context.CancellableContext context) {
+        context.cancel(null);
+        if (!running || context != call) {
+            return;
+        }
+
+        long delay = ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1);
+        backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+        scheduler.schedule(this::subscribe, delay, TimeUnit.MILLISECONDS);
+    }
+}
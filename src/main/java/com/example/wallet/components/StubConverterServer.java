@@ -0,0 +1,84 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves a {@link StubCurrencyService} in-process and, when a port is given, on
+ * that port.
+ */
+public class StubConverterServer {
+    private final Server inProcess;
+    private final Server network;
+    private final ScheduledExecutorService scheduler;
+    private final StubCurrencyService service;
+    private final String name;
+
+    private StubConverterServer(
+            String name,
+            Server inProcess,
+            Server network,
+            ScheduledExecutorService scheduler,
+            StubCurrencyService service
+    ) {
+        this.name = name;
+        this.inProcess = inProcess;
+        this.network = network;
+        this.scheduler = scheduler;
+        this.service = service;
+    }
+
+    public static StubConverterServer start(
+            String name,
+            int port,
+            Map<Currency, Double> values,
+            StubCurrencyService.Faults faults
+    ) throws IOException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "converter-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        StubCurrencyService service = new StubCurrencyService(values, faults, scheduler);
+
+        Server inProcess = InProcessServerBuilder.forName(name)
+                .addService(service)
+                .build()
+                .start();
+        Server network = port > 0
+                ? ServerBuilder.forPort(port).addService(service).build().start()
+                : null;
+
+        return new StubConverterServer(name, inProcess, network, scheduler, service);
+    }
+
+    public String target() {
+        return "in-process:" + name;
+    }
+
+    public StubCurrencyService service() {
+        return service;
+    }
+
+    public void stop() throws InterruptedException {
+        inProcess.shutdownNow();
+        if (network != null) {
+            network.shutdownNow();
+        }
+        scheduler.shutdownNow();
+
+        inProcess.awaitTermination(5, TimeUnit.SECONDS);
+        if (network != null) {
+            network.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LatencyDistribution;
+
+import converter.BatchRequest;
+import converter.BatchResponse;
+import converter.ConvertRequestV2;
+import converter.ConvertResponseV2;
+import converter.CurrencyGrpc;
+import converter.CurrencyRate;
+import converter.RateSubscription;
+import converter.RateUpdate;
+import converter.Request;
+import converter.Response;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Stand-in for the converter service, priced from a fixed table of currency
+ * values.
+ */
+public class StubCurrencyService extends CurrencyGrpc.CurrencyImplBase {
+    private static final int RATE_SCALE = 9;
+
+    private final ScheduledExecutorService scheduler;
+    private final List<StreamObserver<RateUpdate>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong rateVersion = new AtomicLong();
+
+    private volatile Map<Currency, Double> values;
+    private volatile Faults faults;
+
+    public StubCurrencyService(Map<Currency, Double> values, Faults faults, ScheduledExecutorService scheduler) {
+        this.values = new EnumMap<>(values);
+        this.faults = faults;
+        this.scheduler = scheduler;
+        this.rateVersion.set(1);
+    }
+
+    public void setFaults(Faults faults) {
+        this.faults = faults;
+    }
+
+    public void setValues(Map<Currency, Double> values) {
+        this.values = new EnumMap<>(values);
+        rateVersion.incrementAndGet();
+
+        RateUpdate update = rateUpdate();
+        for (StreamObserver<RateUpdate> subscriber : subscribers) {
+            try {
+                synchronized (subscriber) {
+                    subscriber.onNext(update);
+                }
+            } catch (RuntimeException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    @Override
+    public void convert(Request request, StreamObserver<Response> responseObserver) {
+        answer(responseObserver, () -> converted(request));
+    }
+
+    @Override
+    public void convertBatch(BatchRequest request, StreamObserver<BatchResponse> responseObserver) {
+        answer(responseObserver, () -> {
+            BatchResponse.Builder response = BatchResponse.newBuilder();
+            for (Request conversion : request.getRequestsList()) {
+                response.addResponses(converted(conversion));
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public StreamObserver<Request> convertStream(StreamObserver<Response> responseObserver) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(Request request) {
+                long delay = faults.delayMillis();
+                scheduler.schedule(() -> {
+                    synchronized (responseObserver) {
+                        responseObserver.onNext(converted(request));
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onCompleted() {
+                synchronized (responseObserver) {
+                    responseObserver.onCompleted();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void subscribeRates(RateSubscription request, StreamObserver<RateUpdate> responseObserver) {
+        synchronized (responseObserver) {
+            subscribers.add(responseObserver);
+            responseObserver.onNext(rateUpdate());
+        }
+    }
+
+    @Override
+    public void convertV2(ConvertRequestV2 request, StreamObserver<ConvertResponseV2> responseObserver) {
+        answer(responseObserver, () -> {
+            Currency to = Currency.valueOf(request.getToCurrency());
+            BigDecimal rate = BigDecimal.valueOf(rate(Currency.valueOf(request.getFromCurrency()), to))
+                    .setScale(RATE_SCALE, RoundingMode.HALF_EVEN);
+            BigDecimal amount = BigDecimal.valueOf(request.getAmountMinor(), request.getScale())
+                    .multiply(rate)
+                    .setScale(to.getScale(), RoundingMode.HALF_EVEN);
+
+            return ConvertResponseV2.newBuilder()
+                    .setCurrency(to.toString())
+                    .setAmountMinor(amount.unscaledValue().longValueExact())
+                    .setScale(to.getScale())
+                    .setId(request.getId())
+                    .setRateVersion(rateVersion.get())
+                    .setRate(rate.unscaledValue().longValueExact())
+                    .setRateScale(RATE_SCALE)
+                    .build();
+        });
+    }
+
+    private <T> void answer(StreamObserver<T> responseObserver, Supplier<T> response) {
+        Faults current = faults;
+        if (ThreadLocalRandom.current().nextDouble() < current.timeoutRate()) {
+            return;
+        }
+
+        Runnable reply = () -> {
+            if (ThreadLocalRandom.current().nextDouble() < current.errorRate()) {
+                responseObserver.onError(current.errorStatus().withDescription("Injected fault").asRuntimeException());
+                return;
+            }
+
+            try {
+                responseObserver.onNext(response.get());
+                responseObserver.onCompleted();
+            } catch (IllegalArgumentException e) {
+                responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            }
+        };
+
+        long delay = current.delayMillis();
+        if (delay <= 0) {
+            reply.run();
+        } else {
+            scheduler.schedule(reply, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Response converted(Request request) {
+        Currency to = Currency.valueOf(request.getToCurrency());
+        double rate = rate(Currency.valueOf(request.getFromCurrency()), to);
+
+        return Response.newBuilder()
+                .setCurrency(to.toString())
+                .setValue((float) (request.getValue() * rate))
+                .setId(request.getId())
+                .build();
+    }
+
+    private double rate(Currency from, Currency to) {
+        Map<Currency, Double> current = values;
+        Double fromValue = current.get(from);
+        Double toValue = current.get(to);
+        if (fromValue == null || toValue == null) {
+            throw new IllegalArgumentException("No rate for " + from + " to " + to);
+        }
+
+        return fromValue / toValue;
+    }
+
+    private RateUpdate rateUpdate() {
+        RateUpdate.Builder update = RateUpdate.newBuilder().setAsOfMillis(System.currentTimeMillis());
+        for (Map.Entry<Currency, Double> value : values.entrySet()) {
+            update.addRates(CurrencyRate.newBuilder()
+                    .setCurrency(value.getKey().toString())
+                    .setValue(value.getValue()));
+        }
+
+        return update.build();
+    }
+
+    public record Faults(
+            LatencyDistribution distribution,
+            long baseMillis,
+            long jitterMillis,
+            double spikeRate,
+            long spikeMillis,
+            double errorRate,
+            Status.Code errorCode,
+            double timeoutRate
+    ) {
+        public static final Faults NONE = new Faults(LatencyDistribution.FIXED, 0, 0, 0, 0, 0, Status.Code.UNAVAILABLE, 0);
+
+        public long delayMillis() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double delay = baseMillis;
+
+            switch (distribution) {
+                case UNIFORM -> delay += random.nextDouble() * jitterMillis;
+                case EXPONENTIAL -> delay += -Math.log(1 - random.nextDouble()) * jitterMillis;
+                case FIXED -> {
+                }
+            }
+            if (spikeRate > 0 && random.nextDouble() < spikeRate) {
+                delay += spikeMillis;
+            }
+
+            return Math.round(delay);
+        }
+
+        private Status errorStatus() {
+            return Status.fromCode(errorCode);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.wallet.components;
+
+import com.example.wallet.models.PassbookEntry;
+import com.example.wallet.models.Transaction;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Writes the passbook entries and transactions of many transfers as JDBC
+ * batches.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferBatchWriter {
+    private static final String INSERT_ENTRY = "INSERT INTO entry "
+            + "(timestamp, wallet_id, amount_minor, currency, service_charge, type) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TRANSACTION = "INSERT INTO transactions "
+            + "(sender_entry, receiver_entry, sender_id, receiver_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertEntries(List<PassbookEntry> entries) {
+        insert(INSERT_ENTRY, entries, (statement, entry) -> {
+            try {
+                statement.setLong(1, entry.getTimestamp());
+                statement.setLong(2, entry.getWallet().getId());
+                statement.setLong(3, entry.getMoney().getAmountMinor());
+                statement.setString(4, entry.getMoney().getCurrency().name());
+                statement.setDouble(5, entry.getServiceCharge());
+                statement.setString(6, entry.getType().name());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }, PassbookEntry::setId);
+    }
+
+    public void insertTransactions(List<Transaction> transactions) {
+        insert(INSERT_TRANSACTION, transactions, (statement, transaction) -> {
+            try {
+                statement.setLong(1, transaction.getSenderEntry().getId());
+                statement.setLong(2, transaction.getReceiverEntry().getId());
+                statement.setLong(3, transaction.getSender().getId());
+                statement.setLong(4, transaction.getReceiver().getId());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }, Transaction::setId);
+    }
+
+    private <T> void insert(
+            String sql,
+            List<T> rows,
+            BiConsumer<PreparedStatement, T> binder,
+            BiConsumer<T, Long> idSetter
+    ) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) {
+                        binder.accept(statement, rows.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys
+        );
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < rows.size(); i++) {
+            idSetter.accept(rows.get(i), ((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.wallet.components;
+
+import com.example.wallet.models.PassbookEntry;
+import com.example.wallet.models.Transaction;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Commits already priced transfers from many threads in one database
+ * transaction.
+ */
+@Component
+public class TransferGroupCommitter {
+    private final TransactionTemplate transactionTemplate;
+    private final WalletRetryExecutor retryExecutor;
+    private final WalletLocks walletLocks;
+    private final TransferBatchWriter batchWriter;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final int maxSize;
+
+    private final BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+
+    private volatile boolean running;
+
+    public TransferGroupCommitter(
+            TransactionTemplate transactionTemplate,
+            WalletRetryExecutor retryExecutor,
+            WalletLocks walletLocks,
+            TransferBatchWriter batchWriter,
+            @Value(value = "${application.transactions.group-commit.enabled}") boolean enabled,
+            @Value(value = "${application.transactions.group-commit.max-wait-millis}") long maxWaitMillis,
+            @Value(value = "${application.transactions.group-commit.max-size}") int maxSize
+    ) {
+        this.transactionTemplate = transactionTemplate;
+        this.retryExecutor = retryExecutor;
+        this.walletLocks = walletLocks;
+        this.batchWriter = batchWriter;
+        this.enabled = enabled;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxSize = maxSize;
+        this.committer = new Thread(this::run, "transfer-group-committer");
+        this.committer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled && !running) {
+            running = true;
+            committer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Transaction commit(Collection<Long> walletIds, Supplier<Transaction> transfer) {
+        if (!running) {
+            throw new IllegalStateException("Transfer group committer is not running");
+        }
+        CompletableFuture<Transaction> future = new CompletableFuture<>();
+        queue.add(new PendingTransfer(List.copyOf(walletIds), transfer, future));
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        committer.interrupt();
+
+        IllegalStateException shutdown = new IllegalStateException("Transfer group committer is shut down");
+        for (PendingTransfer pending : queue) {
+            pending.future().completeExceptionally(shutdown);
+        }
+    }
+
+    private void run() {
+        List<PendingTransfer> group = new ArrayList<>(maxSize);
+
+        while (running) {
+            try {
+                group.add(queue.take());
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (group.size() < maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(group, maxSize - group.size());
+                        break;
+                    }
+
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+
+                commitGroup(new ArrayList<>(group));
+            } catch (InterruptedException e) {
+                IllegalStateException shutdown = new IllegalStateException("Transfer group committer is shut down");
+                for (PendingTransfer pending : group) {
+                    pending.future().completeExceptionally(shutdown);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            group.clear();
+        }
+    }
+
+    private void commitGroup(List<PendingTransfer> group) {
+        while (!group.isEmpty()) {
+            try {
+                List<Transaction> transactions = transactionTemplate.execute(status -> apply(group));
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).future().complete(transactions.get(i));
+                }
+                return;
+            } catch (MemberFailedException e) {
+                e.member.future().completeExceptionally(e.getCause());
+                group.remove(e.member);
+            } catch (RuntimeException e) {
+                commitEach(group);
+                return;
+            }
+        }
+    }
+
+    private void commitEach(List<PendingTransfer> group) {
+        for (PendingTransfer pending : group) {
+            try {
+                pending.future().complete(retryExecutor.execute(() -> {
+                    walletLocks.lock(pending.walletIds().toArray(Long[]::new));
+                    return write(List.of(pending.transfer().get())).get(0);
+                }));
+            } catch (RuntimeException e) {
+                pending.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private List<Transaction> apply(List<PendingTransfer> group) {
+        Set<Long> walletIds = new TreeSet<>();
+        for (PendingTransfer pending : group) {
+            walletIds.addAll(pending.walletIds());
+        }
+        walletLocks.lock(walletIds.toArray(Long[]::new));
+
+        List<Transaction> transactions = new ArrayList<>(group.size());
+        for (PendingTransfer pending : group) {
+            try {
+                transactions.add(pending.transfer().get());
+            } catch (RuntimeException e) {
+                throw new MemberFailedException(pending, e);
+            }
+        }
+        return write(transactions);
+    }
+
+    private List<Transaction> write(List<Transaction> transactions) {
+        List<PassbookEntry> entries = new ArrayList<>(transactions.size() * 2);
+        for (Transaction transaction : transactions) {
+            entries.add(transaction.getSenderEntry());
+            entries.add(transaction.getReceiverEntry());
+        }
+
+        batchWriter.insertEntries(entries);
+        batchWriter.insertTransactions(transactions);
+        return transactions;
+    }
+
+    private record PendingTransfer(
+            List<Long> walletIds,
+            Supplier<Transaction> transfer, CompletableFuture<Transaction> future) {
+    }
+
+    // Thrown out of the group's transaction so that it rolls back.
+    private static class MemberFailedException extends RuntimeException {
+        private final transient PendingTransfer member;
+
+        MemberFailedException(PendingTransfer member, RuntimeException cause) {
+            super(cause.getMessage(), cause, false, false);
+            this.member = member;
+        }
+    }
+}
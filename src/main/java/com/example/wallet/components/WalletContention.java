@@ -0,0 +1,46 @@
+package com.example.wallet.components;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts collisions per wallet for {@link HotWalletDetector}.
+ */
+@Component
+public class WalletContention {
+    private final Map<Long, Long> counts = new HashMap<>();
+    private final int maxTracked;
+
+    public WalletContention(
+            @Value(value = "${application.transactions.sharding.detection.max-tracked}") int maxTracked
+    ) {
+        this.maxTracked = maxTracked;
+    }
+
+    public synchronized void record(Long walletId) {
+        Long count = counts.get(walletId);
+        if (count != null || counts.size() < maxTracked) {
+            counts.put(walletId, (count != null ? count : 0) + 1);
+            return;
+        }
+
+        Map.Entry<Long, Long> least = null;
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            if (least == null || entry.getValue() < least.getValue()) {
+                least = entry;
+            }
+        }
+        long inherited = least.getValue();
+        counts.remove(least.getKey());
+        counts.put(walletId, inherited + 1);
+    }
+
+    public synchronized Map<Long, Long> drain() {
+        Map<Long, Long> drained = new HashMap<>(counts);
+        counts.clear();
+        return drained;
+    }
+}
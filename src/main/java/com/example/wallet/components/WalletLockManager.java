@@ -0,0 +1,122 @@
+package com.example.wallet.components;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes changes to the same wallet inside this instance before they reach
+ * the database.
+ */
+@Component
+public class WalletLockManager {
+    private final WalletContention contention;
+    private final ReentrantLock[] stripes;
+    private final AtomicReferenceArray<Collection<Long>> holders;
+    private final Counter[] contended;
+    private final Timer wait;
+    private final boolean enabled;
+
+    public WalletLockManager(
+            MeterRegistry registry,
+            WalletContention contention,
+            @Value(value = "${application.transactions.striped-locks.enabled}") boolean enabled,
+            @Value(value = "${application.transactions.striped-locks.stripes}") int stripes,
+            @Value(value = "${application.transactions.striped-locks.fair}") boolean fair
+    ) {
+        this.contention = contention;
+        this.enabled = enabled;
+        this.stripes = new ReentrantLock[stripes];
+        this.holders = new AtomicReferenceArray<>(stripes);
+        this.contended = new Counter[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            this.stripes[stripe] = new ReentrantLock(fair);
+            this.contended[stripe] = registry.counter("wallet.lock.contended", "stripe", String.valueOf(stripe));
+        }
+        this.wait = Timer.builder("wallet.lock.wait")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Inside a transaction the stripes are held until it commits or rolls back,
+     * so the next change on them reads what this one wrote.
+     */
+    public <T> T withLocks(Collection<Long> walletIds, Collection<Long> credited, Supplier<T> operation) {
+        if (!enabled) {
+            return operation.get();
+        }
+
+        int[] held = stripesOf(walletIds);
+        for (int stripe : held) {
+            acquire(stripe, walletIds, credited);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(held);
+                }
+            });
+            return operation.get();
+        }
+
+        try {
+            return operation.get();
+        } finally {
+            release(held);
+        }
+    }
+
+    public int stripeOf(Long walletId) {
+        int hash = walletId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    private int[] stripesOf(Collection<Long> walletIds) {
+        return walletIds.stream()
+                .mapToInt(this::stripeOf)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private void release(int[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            holders.set(held[i], null);
+            stripes[held[i]].unlock();
+        }
+    }
+
+    private void acquire(int stripe, Collection<Long> walletIds, Collection<Long> credited) {
+        ReentrantLock lock = stripes[stripe];
+        if (lock.tryLock()) {
+            wait.record(0, TimeUnit.NANOSECONDS);
+            holders.set(stripe, walletIds);
+            return;
+        }
+
+        contended[stripe].increment();
+        Collection<Long> holding = holders.get(stripe);
+        for (Long walletId : credited) {
+            if (stripeOf(walletId) == stripe && holding != null && holding.contains(walletId)) {
+                contention.record(walletId);
+            }
+        }
+        long started = System.nanoTime();
+        lock.lock();
+        wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        holders.set(stripe, walletIds);
+    }
+}
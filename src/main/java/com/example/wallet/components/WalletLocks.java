@@ -0,0 +1,53 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.LockingMode;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Takes the row locks a balance change needs.
+ */
+@Component
+public class WalletLocks {
+    private final WalletRepository walletRepository;
+    private final LockingMode mode;
+    private final long timeoutMillis;
+
+    public WalletLocks(
+            WalletRepository walletRepository,
+            @Value(value = "${application.transactions.locking}") LockingMode mode,
+            @Value(value = "${application.transactions.lock-timeout-millis}") long timeoutMillis
+    ) {
+        this.walletRepository = walletRepository;
+        this.mode = mode;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Long... walletIds) {
+        if (mode == LockingMode.PESSIMISTIC) {
+            walletRepository.lockInOrder(List.of(walletIds), timeoutMillis);
+        }
+    }
+
+    /**
+     * Re-reads wallets that were loaded before their rows were locked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reload(Wallet... wallets) {
+        for (Wallet wallet : wallets) {
+            walletRepository.reload(wallet);
+        }
+    }
+
+    public LockingMode mode() {
+        return mode;
+    }
+}
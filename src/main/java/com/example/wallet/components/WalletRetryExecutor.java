@@ -0,0 +1,103 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.LockingMode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a wallet change in its own transaction, which also claims the request's
+ * idempotency key, retrying optimistic conflicts.
+ */
+@Component
+public class WalletRetryExecutor {
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyStore idempotencyStore;
+    private final WalletLocks walletLocks;
+    private final WalletContention contention;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public WalletRetryExecutor(
+            TransactionTemplate transactionTemplate,
+            IdempotencyStore idempotencyStore,
+            WalletLocks walletLocks,
+            WalletContention contention,
+            MeterRegistry registry,
+            @Value(value = "${application.transactions.retry.max-attempts}") int maxAttempts,
+            @Value(value = "${application.transactions.retry.backoff.initial-millis}") long initialBackoffMillis,
+            @Value(value = "${application.transactions.retry.backoff.max-millis}") long maxBackoffMillis
+    ) {
+        this.transactionTemplate = transactionTemplate;
+        this.idempotencyStore = idempotencyStore;
+        this.walletLocks = walletLocks;
+        this.contention = contention;
+        this.conflicts = registry.counter("wallet.optimistic.conflicts");
+        this.retries = registry.counter("wallet.optimistic.retries");
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> operation) {
+        if (walletLocks.mode() != LockingMode.OPTIMISTIC) {
+            return inTransaction(operation);
+        }
+
+        return retrying(operation);
+    }
+
+    /**
+     * Retries whatever the locking mode, for changes that detect conflicts on
+     * their own.
+     */
+    public <T> T retrying(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return inTransaction(operation);
+            } catch (OptimisticLockingFailureException | PessimisticLockingFailureException e) {
+                conflicts.increment();
+                if (e instanceof ObjectOptimisticLockingFailureException failure
+                        && failure.getIdentifier() instanceof Long walletId) {
+                    contention.record(walletId);
+                }
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+
+                retries.increment();
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> T inTransaction(Supplier<T> operation) {
+        return transactionTemplate.execute(status -> {
+            idempotencyStore.claim();
+            return operation.get();
+        });
+    }
+
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.exceptions.IncompatibleCurrencyException;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.models.Wallet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the balance of hot wallets over slot rows, so concurrent credits
+ * update different rows.
+ */
+@Component
+public class WalletShards {
+    private static final String SLOT_COUNT = "SELECT COUNT(*) FROM wallet_slots WHERE wallet_id = ?";
+    private static final String INSERT_SLOT = "INSERT INTO wallet_slots (wallet_id, slot, amount_minor) VALUES (?, ?, 0)";
+    private static final String SHARDED_WALLETS = "SELECT DISTINCT wallet_id FROM wallet_slots";
+    private static final String CREDIT_SLOT =
+            "UPDATE wallet_slots SET amount_minor = amount_minor + ? WHERE wallet_id = ? AND slot = ?";
+    private static final String LOCK_SLOTS =
+            "SELECT amount_minor FROM wallet_slots WHERE wallet_id = ? ORDER BY slot FOR UPDATE";
+    private static final String EMPTY_SLOTS = "UPDATE wallet_slots SET amount_minor = 0 WHERE wallet_id = ?";
+    private static final String SLOTS_TOTAL =
+            "SELECT COALESCE(SUM(amount_minor), 0) FROM wallet_slots WHERE wallet_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int slots;
+    private final List<Long> configured;
+
+    private final Set<Long> sharded = ConcurrentHashMap.newKeySet();
+
+    public WalletShards(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value(value = "${application.transactions.sharding.enabled}") boolean enabled,
+            @Value(value = "${application.transactions.sharding.slots}") int slots,
+            @Value(value = "${application.transactions.sharding.wallets}") List<Long> configured
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.slots = slots;
+        this.configured = configured;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        refresh();
+        configured.forEach(this::promote);
+    }
+
+    public void refresh() {
+        sharded.addAll(jdbcTemplate.queryForList(SHARDED_WALLETS, Long.class));
+    }
+
+    public boolean isSharded(Long walletId) {
+        return enabled && sharded.contains(walletId);
+    }
+
+    public void promote(Long walletId) {
+        if (sharded.contains(walletId)) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.queryForObject(SLOT_COUNT, Long.class, walletId) > 0) {
+                    return;
+                }
+                List<Object[]> rows = new ArrayList<>(slots);
+                for (int slot = 0; slot < slots; slot++) {
+                    rows.add(new Object[]{walletId, slot});
+                }
+                jdbcTemplate.batchUpdate(INSERT_SLOT, rows);
+            });
+        } catch (DuplicateKeyException e) {
+            // Sharded by another instance at the same time.
+        }
+        sharded.add(walletId);
+    }
+
+    /**
+     * Sweeps the slots into the row when the row alone cannot cover the debit.
+     */
+    public void cover(Wallet wallet, long debitMinor) {
+        if (isSharded(wallet.getId()) && wallet.getMoney().getAmountMinor() < debitMinor) {
+            sweep(wallet);
+        }
+    }
+
+    public void deposit(Wallet wallet, Money money) {
+        if (!isSharded(wallet.getId())) {
+            wallet.deposit(money);
+            return;
+        }
+        if (money.getAmountMinor() < 1) {
+            throw new InvalidAmountException();
+        }
+        if (money.getCurrency() != wallet.getMoney().getCurrency()) {
+            throw new IncompatibleCurrencyException();
+        }
+        credit(wallet.getId(), money.getAmountMinor());
+    }
+
+    public void credit(Long walletId, long amountMinor) {
+        jdbcTemplate.update(CREDIT_SLOT, amountMinor, walletId, ThreadLocalRandom.current().nextInt(slots));
+    }
+
+    public void sweep(Wallet wallet) {
+        long total = jdbcTemplate.queryForList(LOCK_SLOTS, Long.class, wallet.getId())
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        if (total > 0) {
+            jdbcTemplate.update(EMPTY_SLOTS, wallet.getId());
+            wallet.deposit(Money.ofMinor(total, wallet.getMoney().getCurrency()));
+        }
+    }
+
+    public Money balance(Wallet wallet) {
+        long slotsMinor = jdbcTemplate.queryForObject(SLOTS_TOTAL, Long.class, wallet.getId());
+        return Money.ofMinor(wallet.getMoney().getAmountMinor() + slotsMinor, wallet.getMoney().getCurrency());
+    }
+}
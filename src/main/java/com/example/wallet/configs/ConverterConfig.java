@@ -0,0 +1,23 @@
+package com.example.wallet.configs;
+
+import com.example.wallet.components.CurrencyConversionClient;
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.LocalCurrencyConverter;
+import com.example.wallet.enums.ConversionMode;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class ConverterConfig {
+    @Value(value = "${application.converter.mode}")
+    private ConversionMode mode;
+
+    @Bean
+    @Primary
+    public CurrencyConverter currencyConverter(LocalCurrencyConverter local, CurrencyConversionClient remote) {
+        return mode == ConversionMode.LOCAL ? local : remote;
+    }
+}
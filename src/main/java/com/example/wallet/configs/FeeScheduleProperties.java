@@ -0,0 +1,23 @@
+package com.example.wallet.configs;
+
+import com.example.wallet.enums.Currency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Service charges for cross-currency transfers, quoted in {@code currency}.
+ */
+@ConfigurationProperties(prefix = "application.fees")
+public record FeeScheduleProperties(Currency currency, double defaultCharge, List<Rule> rules, long maxAgeMillis) {
+    public FeeScheduleProperties {
+        rules = rules == null ? List.of() : List.copyOf(rules);
+    }
+
+    public record Rule(Currency from, Currency to, double minAmount, Double maxAmount, double charge) {
+        public boolean matches(Currency sender, Currency receiver) {
+            return (from == null || from == sender) && (to == null || to == receiver);
+        }
+    }
+}
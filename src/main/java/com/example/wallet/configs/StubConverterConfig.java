@@ -0,0 +1,28 @@
+package com.example.wallet.configs;
+
+import com.example.wallet.components.StubConverterServer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Starts the stub converter inside the application, for load tests.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.converter.stub", name = "enabled")
+@EnableConfigurationProperties(StubConverterProperties.class)
+public class StubConverterConfig {
+    @Bean(destroyMethod = "stop")
+    public StubConverterServer stubConverterServer(StubConverterProperties properties) throws IOException {
+        return StubConverterServer.start(
+                properties.name(),
+                properties.port(),
+                properties.values(),
+                properties.faults()
+        );
+    }
+}
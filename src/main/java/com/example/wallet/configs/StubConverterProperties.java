@@ -0,0 +1,18 @@
+package com.example.wallet.configs;
+
+import com.example.wallet.components.StubCurrencyService;
+import com.example.wallet.enums.Currency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "application.converter.stub")
+public record StubConverterProperties(
+        boolean enabled,
+        String name,
+        int port,
+        Map<Currency, Double> values,
+        StubCurrencyService.Faults faults
+) {
+}
@@ -0,0 +1,34 @@
+package com.example.wallet.controllers;
+
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.ConverterEndpointsDTO;
+import com.example.wallet.services.ConverterService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/converter")
+@RequiredArgsConstructor
+public class ConverterController {
+    private final ConverterService converterService;
+
+    @GetMapping("/endpoints")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> endpoints() {
+        return this.converterService.endpoints();
+    }
+
+    @PutMapping("/endpoints")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse> updateEndpoints(@RequestBody ConverterEndpointsDTO request) {
+        return this.converterService.updateEndpoints(request);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.wallet.controllers;
+
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.QuoteRequest;
+import com.example.wallet.services.QuoteService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/quotes")
+@RequiredArgsConstructor
+public class QuoteController {
+    private final QuoteService quoteService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse> quote(@RequestBody QuoteRequest request) {
+        return this.quoteService.quote(request);
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.wallet.controllers;
 
+import com.example.wallet.components.IdempotencyStore;
 import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.BatchTransactionRequest;
 import com.example.wallet.dto.TransactionRequest;
+import com.example.wallet.services.AsyncTransactionService;
+import com.example.wallet.services.BatchTransactionService;
 import com.example.wallet.services.TransactionService;
 
 import lombok.RequiredArgsConstructor;
@@ -9,21 +13,54 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/transactions")
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final BatchTransactionService batchTransactionService;
+    private final AsyncTransactionService asyncTransactionService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<ApiResponse> transact(@RequestBody TransactionRequest request) {
-        return this.transactionService.transact(request);
+    public ResponseEntity<ApiResponse> transact(
+            @RequestBody TransactionRequest request,
+            @RequestParam(value = "mode", required = false) String mode,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        if ("async".equalsIgnoreCase(mode)) {
+            return this.idempotencyStore.execute(idempotencyKey, List.of("async-transfer", request),
+                    () -> this.asyncTransactionService.transact(request));
+        }
+        return this.idempotencyStore.execute(idempotencyKey, List.of("transfer", request),
+                () -> this.transactionService.transact(request));
+    }
+
+    @GetMapping("/{id}/status")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse> status(@PathVariable String id) {
+        return this.asyncTransactionService.status(id);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse> transactBatch(
+            @RequestBody BatchTransactionRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        return this.idempotencyStore.execute(idempotencyKey, List.of("batch", request),
+                () -> this.batchTransactionService.transact(request));
     }
 
     @GetMapping("/")
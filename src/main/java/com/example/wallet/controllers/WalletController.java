@@ -1,5 +1,6 @@
 package com.example.wallet.controllers;
 
+import com.example.wallet.components.IdempotencyStore;
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.dto.Money;
 import com.example.wallet.exceptions.InvalidWalletAction;
@@ -11,11 +12,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/wallets")
 @RequiredArgsConstructor
 public class WalletController {
     private final WalletService walletService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @PreAuthorize("hasRole('USER')")
@@ -25,11 +29,18 @@ public class WalletController {
 
     @PatchMapping("/{walletId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<ApiResponse> action(@PathVariable(value = "walletId") Long id, @RequestBody Money moneyRequest, @RequestHeader(value = "Action") String action) {
+    public ResponseEntity<ApiResponse> action(
+            @PathVariable(value = "walletId") Long id,
+            @RequestBody Money moneyRequest,
+            @RequestHeader(value = "Action") String action,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
         if (action.equalsIgnoreCase("deposit")) {
-            return this.walletService.deposit(id, moneyRequest);
+            return this.idempotencyStore.execute(idempotencyKey, List.of("deposit", id, moneyRequest),
+                    () -> this.walletService.deposit(id, moneyRequest));
         } else if (action.equalsIgnoreCase("withdraw")) {
-            return this.walletService.withdraw(id, moneyRequest);
+            return this.idempotencyStore.execute(idempotencyKey, List.of("withdraw", id, moneyRequest),
+                    () -> this.walletService.withdraw(id, moneyRequest));
         }
 
         throw new InvalidWalletAction();
@@ -0,0 +1,17 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.BatchMode;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionRequest {
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+    private List<TransactionRequest> transactions;
+}
@@ -0,0 +1,8 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.Currency;
+
+import java.util.List;
+
+public record CurrencyRatesChangedEvent(List<Currency> currencies) {
+}
@@ -0,0 +1,27 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LedgerRecordType;
+
+/**
+ * One balance change applied by the ledger engine, as written to its journal.
+ */
+public record LedgerRecord(
+        long seq,
+        LedgerRecordType type,
+        long timestamp,
+        long debitWalletId,
+        long creditWalletId,
+        long debitMinor,
+        long creditMinor,
+        long feeMinor,
+        Currency debitCurrency,
+        Currency creditCurrency,
+        long debitOwnerId,
+        long creditOwnerId
+) {
+    public LedgerRecord withSeq(long seq) {
+        return new LedgerRecord(seq, type, timestamp, debitWalletId, creditWalletId, debitMinor, creditMinor,
+                feeMinor, debitCurrency, creditCurrency, debitOwnerId, creditOwnerId);
+    }
+}
@@ -1,85 +1,119 @@
 package com.example.wallet.dto;
 
 import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.IncompatibleCurrencyException;
 import com.example.wallet.exceptions.InvalidAmountException;
 import com.example.wallet.exceptions.OverWithdrawalException;
-import converter.CurrencyGrpc;
-import converter.Request;
-import converter.Response;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
-import jakarta.persistence.Embeddable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
+
 import lombok.Data;
 
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount held as a whole number of minor units of its currency.
+ */
 @Data
-@Builder
-@AllArgsConstructor
 @Embeddable
 public class Money {
-    private double amount;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    @JsonIgnore
+    @Column(name = "amount_minor", nullable = false)
+    @ColumnDefault("0")
+    private long amountMinor;
 
     @Enumerated(EnumType.STRING)
     private Currency currency;
 
     public Money() {
-        this.amount = 0;
+        this.amountMinor = 0;
         this.currency = Currency.INR;
     }
 
     public Money(Currency currency) {
-        this.amount = 0;
+        this.amountMinor = 0;
+        this.currency = currency;
+    }
+
+    public Money(double amount, Currency currency) {
         this.currency = currency;
+        this.amountMinor = toMinor(amount, currency);
+    }
+
+    public static Money ofMinor(long amountMinor, Currency currency) {
+        Money money = new Money(currency);
+        money.amountMinor = amountMinor;
+        return money;
     }
 
     public double getAmount() {
-        return Math.round(this.amount * 100.0) / 100.0;
+        return (double) this.amountMinor / POWERS_OF_TEN[this.currency.getScale()];
+    }
+
+    public void setAmount(double amount) {
+        this.amountMinor = toMinor(amount, this.currency);
+    }
+
+    public void setCurrency(Currency currency) {
+        if (this.currency != null && currency != null && this.currency.getScale() != currency.getScale()) {
+            this.amountMinor = this.amountMinor
+                    * POWERS_OF_TEN[Math.max(0, currency.getScale() - this.currency.getScale())]
+                    / POWERS_OF_TEN[Math.max(0, this.currency.getScale() - currency.getScale())];
+        }
+        this.currency = currency;
+    }
+
+    /**
+     * Rounded half up to the minor unit of the target currency.
+     */
+    public Money convertedAt(double rate, Currency to) {
+        double minor = this.amountMinor * rate
+                * POWERS_OF_TEN[to.getScale()] / POWERS_OF_TEN[this.currency.getScale()];
+        return ofMinor(Math.round(minor), to);
     }
 
     public void add(Money money) {
         money.isInvalidAmount();
+        this.isSameCurrency(money);
 
-        money = money.convert(this.currency);
-        this.amount += money.amount;
+        this.amountMinor += money.amountMinor;
     }
 
     public void subtract(Money money) {
         money.isInvalidAmount();
-        money = money.convert(this.currency);
-        if (this.amount - money.amount < 0) {
+        this.isSameCurrency(money);
+        if (this.amountMinor - money.amountMinor < 0) {
             throw new OverWithdrawalException();
         }
-        this.amount -= money.amount;
-    }
-
-    public Money convert(Currency to) {
-        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", 8001)
-                .usePlaintext()
-                .build();
-
-        CurrencyGrpc.CurrencyBlockingStub stub = CurrencyGrpc.newBlockingStub(channel);
-
-        Request request = Request.newBuilder()
-                .setFromCurrency(this.getCurrency().toString())
-                .setToCurrency(to.toString())
-                .setValue((float) this.getAmount())
-                .build();
-
-        Response response = stub.convert(request);
-        Money convertedMoney = new Money(Math.round(response.getValue() * 100.0) / 100.0, to);
-
-        channel.shutdown();
-
-        return convertedMoney;
+        this.amountMinor -= money.amountMinor;
     }
 
     private void isInvalidAmount() {
-        if (this.amount < 0.01) {
+        if (this.amountMinor < 1) {
             throw new InvalidAmountException();
         }
     }
+
+    private void isSameCurrency(Money money) {
+        if (this.currency != money.currency) {
+            throw new IncompatibleCurrencyException();
+        }
+    }
+
+    private static long toMinor(double amount, Currency currency) {
+        return BigDecimal.valueOf(amount)
+                .setScale(currency.getScale(), RoundingMode.HALF_UP)
+                .unscaledValue()
+                .longValue();
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.Currency;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A priced conversion of an amount into another currency, with the service
+ * charge for sending it.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Quote {
+    private String quoteId;
+    @JsonIgnore
+    private String username;
+    private Money money;
+    private Money converted;
+    private double rate;
+    private Money serviceCharge;
+    private Long expiresAt;
+
+    public boolean matches(String username, Money money, Currency currency) {
+        return this.username.equals(username)
+                && this.money.equals(money)
+                && this.converted.getCurrency() == currency;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.Currency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequest {
+    private Money money;
+    private Currency currency;
+}
@@ -12,4 +12,9 @@ public class TransactionRequest {
     private Long sendingWalletId;
     private Long receivingWalletId;
     private Money money;
+    private String quoteId;
+
+    public TransactionRequest(String receiver, Long sendingWalletId, Long receivingWalletId, Money money) {
+        this(receiver, sendingWalletId, receivingWalletId, money, null);
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.TransferStage;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where an asynchronous transfer has got to.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransferStatus {
+    private String transferId;
+    @JsonIgnore
+    private String username;
+    private TransferStage stage;
+    private Long transactionId;
+    private String error;
+    private Long updatedAt;
+}
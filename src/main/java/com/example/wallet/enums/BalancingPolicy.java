@@ -0,0 +1,6 @@
+package com.example.wallet.enums;
+
+public enum BalancingPolicy {
+    ROUND_ROBIN,
+    LEAST_OUTSTANDING
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.enums;
+
+public enum CircuitState {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+}
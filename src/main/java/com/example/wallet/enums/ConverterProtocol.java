@@ -0,0 +1,6 @@
+package com.example.wallet.enums;
+
+public enum ConverterProtocol {
+    V1,
+    V2
+}
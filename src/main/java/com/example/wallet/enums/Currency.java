@@ -1,7 +1,17 @@
 package com.example.wallet.enums;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
 public enum Currency {
-    INR,
-    USD,
-    GBP
+    INR(2),
+    USD(2),
+    GBP(2);
+
+    /**
+     * Decimal places of the minor unit.
+     */
+    private final int scale;
 }
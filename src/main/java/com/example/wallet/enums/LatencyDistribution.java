@@ -0,0 +1,7 @@
+package com.example.wallet.enums;
+
+public enum LatencyDistribution {
+    FIXED,
+    UNIFORM,
+    EXPONENTIAL
+}
@@ -0,0 +1,8 @@
+package com.example.wallet.enums;
+
+public enum TransferStage {
+    ACCEPTED,
+    PRICED,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class ConverterUnavailableException extends IllegalArgumentException {
+    public ConverterUnavailableException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class IdempotencyKeyInProgressException extends IllegalArgumentException {
+    public IdempotencyKeyInProgressException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class IdempotencyKeyReusedException extends IllegalArgumentException {
+    public IdempotencyKeyReusedException() {
+        super();
+    }
+}
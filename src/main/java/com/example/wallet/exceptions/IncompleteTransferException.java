@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class IncompleteTransferException extends IllegalArgumentException {
+    public IncompleteTransferException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class InvalidBatchException extends IllegalArgumentException {
+    public InvalidBatchException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class InvalidConverterEndpointsException extends IllegalArgumentException {
+    public InvalidConverterEndpointsException() {
+        super();
+    }
+}
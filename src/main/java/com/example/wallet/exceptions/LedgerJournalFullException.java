@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class LedgerJournalFullException extends RuntimeException {
+    public LedgerJournalFullException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class QuoteMismatchException extends IllegalArgumentException {
+    public QuoteMismatchException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class QuoteNotFoundException extends IllegalArgumentException {
+    public QuoteNotFoundException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class TransferNotFoundException extends IllegalArgumentException {
+    public TransferNotFoundException() {
+        super();
+    }
+}
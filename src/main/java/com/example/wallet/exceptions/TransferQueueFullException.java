@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class TransferQueueFullException extends IllegalArgumentException {
+    public TransferQueueFullException() {
+        super();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.exceptions;
+
+public class UnsupportedBatchModeException extends IllegalArgumentException {
+    public UnsupportedBatchModeException() {
+        super();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.wallet.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A wallet's balance after its event with the given sequence number.
+ */
+@Entity
+@Table(name = "balance_snapshots", uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "seq"}))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(name = "balance_minor", nullable = false)
+    private Long balanceMinor;
+}
@@ -0,0 +1,34 @@
+package com.example.wallet.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String fingerprint;
+
+    private int statusCode;
+
+    @Column(columnDefinition = "text")
+    private String response;
+
+    private Long expiresAt;
+
+    private Long claimedAt;
+}
@@ -0,0 +1,51 @@
+package com.example.wallet.models;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.TransactionType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One immutable change to a wallet's balance.
+ */
+@Entity
+@Table(name = "ledger_events", uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "seq"}))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(name = "amount_minor", nullable = false)
+    private Long amountMinor;
+
+    @Enumerated(EnumType.STRING)
+    private Currency currency;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType type;
+
+    private Long timestamp;
+}
@@ -0,0 +1,25 @@
+package com.example.wallet.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "ledger_projection")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerProjection {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long seq;
+}
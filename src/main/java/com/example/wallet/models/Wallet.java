@@ -6,17 +6,21 @@ import com.example.wallet.exceptions.OverWithdrawalException;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.hibernate.annotations.ColumnDefault;
+
 @Builder
 @Data
 @AllArgsConstructor
@@ -30,7 +34,11 @@ public class Wallet {
 
     private Money money;
 
-    @ManyToOne(cascade = CascadeType.ALL)
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private User user;
 
     public Wallet(User user) {
@@ -0,0 +1,39 @@
+package com.example.wallet.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Part of a sharded wallet's balance that credits are added to, in the wallet's
+ * currency.
+ */
+@Entity
+@Table(name = "wallet_slots", uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "slot"}))
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WalletSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(name = "amount_minor", nullable = false)
+    private Long amountMinor;
+}
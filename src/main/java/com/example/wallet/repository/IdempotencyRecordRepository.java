@@ -0,0 +1,40 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Modifying
+    @Transactional
+    void deleteAllByExpiresAtBefore(Long expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt <= :now")
+    void deleteExpired(@Param("id") String id, @Param("now") Long now);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO idempotency_keys (id, fingerprint, status_code, expires_at, claimed_at)
+            VALUES (:id, :fingerprint, 0, :expiresAt, :claimedAt)
+            """, nativeQuery = true)
+    void claim(
+            @Param("id") String id,
+            @Param("fingerprint") String fingerprint,
+            @Param("expiresAt") Long expiresAt,
+            @Param("claimedAt") Long claimedAt
+    );
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.response = :response
+            WHERE r.id = :id AND r.statusCode = 0
+            """)
+    int answer(@Param("id") String id, @Param("statusCode") int statusCode, @Param("response") String response);
+}
@@ -0,0 +1,8 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.models.LedgerProjection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerProjectionRepository extends JpaRepository<LedgerProjection, Integer> {
+}
@@ -0,0 +1,14 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.models.Wallet;
+
+import java.util.Collection;
+
+public interface WalletLocking {
+    /**
+     * Must run inside a transaction; the locks are held until it ends.
+     */
+    void lockInOrder(Collection<Long> walletIds, long timeoutMillis);
+
+    void reload(Wallet wallet);
+}
@@ -0,0 +1,54 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.models.Wallet;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import java.util.Collection;
+
+class WalletLockingImpl implements WalletLocking {
+    private static final long H2_DEFAULT_LOCK_TIMEOUT_MILLIS = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void lockInOrder(Collection<Long> walletIds, long timeoutMillis) {
+        String database = database();
+        setLockTimeout(database, timeoutMillis);
+
+        try {
+            // Rows lock in id order as the sorted result is read, so transfers queue instead of deadlocking.
+            entityManager.createNativeQuery("SELECT id FROM wallets WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+                    .setParameter("ids", walletIds)
+                    .getResultList();
+        } finally {
+            // H2 keeps the timeout on the pooled connection and cannot read it back.
+            if ("H2".equals(database)) {
+                entityManager.createNativeQuery("SET LOCK_TIMEOUT " + H2_DEFAULT_LOCK_TIMEOUT_MILLIS).executeUpdate();
+            }
+        }
+    }
+
+    @Override
+    public void reload(Wallet wallet) {
+        entityManager.refresh(wallet);
+    }
+
+    private String database() {
+        // The configured dialect names PostgreSQL even where tests run on H2.
+        return entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+    }
+
+    private void setLockTimeout(String database, long timeoutMillis) {
+        if ("PostgreSQL".equals(database)) {
+            entityManager.createNativeQuery("SET LOCAL lock_timeout = '" + timeoutMillis + "ms'").executeUpdate();
+        } else if ("H2".equals(database)) {
+            entityManager.createNativeQuery("SET LOCK_TIMEOUT " + timeoutMillis).executeUpdate();
+        }
+    }
+}
@@ -3,12 +3,33 @@ package com.example.wallet.repository;
 import com.example.wallet.models.User;
 import com.example.wallet.models.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface WalletRepository extends JpaRepository<Wallet, Long> {
+public interface WalletRepository extends JpaRepository<Wallet, Long>, WalletLocking {
     Optional<Wallet> findByIdAndUser(Long id, User user);
     List<Wallet> findAllByUser(User user);
     void deleteAllByUser(User user);
+
+    @Query("""
+            SELECT w FROM Wallet w JOIN FETCH w.user u
+            WHERE (w.id = :sendingWalletId AND u.username = :sender)
+               OR (w.id = :receivingWalletId AND u.username = :receiver)
+            """)
+    List<Wallet> findTransferWallets(
+            @Param("sendingWalletId") Long sendingWalletId,
+            @Param("sender") String sender,
+            @Param("receivingWalletId") Long receivingWalletId,
+            @Param("receiver") String receiver
+    );
+
+    @Query("SELECT w FROM Wallet w JOIN FETCH w.user")
+    List<Wallet> findAllWithUsers();
+
+    @Query("SELECT w FROM Wallet w JOIN FETCH w.user WHERE w.id IN :ids")
+    List<Wallet> findAllWithUsersByIdIn(@Param("ids") Collection<Long> ids);
 }
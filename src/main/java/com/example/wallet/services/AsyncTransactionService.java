@@ -0,0 +1,205 @@
+package com.example.wallet.services;
+
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.dto.TransactionRequest;
+import com.example.wallet.dto.TransferStatus;
+import com.example.wallet.enums.TransferStage;
+import com.example.wallet.exceptions.IncompleteTransferException;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.exceptions.TransactionForSameWalletException;
+import com.example.wallet.exceptions.TransferNotFoundException;
+import com.example.wallet.exceptions.TransferQueueFullException;
+import com.example.wallet.models.Transaction;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Accepts transfers without waiting for them.
+ */
+@Service
+public class AsyncTransactionService {
+    private final TransactionService transactionService;
+    private final QuoteService quoteService;
+    private final WalletRepository walletRepository;
+
+    private final BlockingQueue<PendingTransfer> pricing;
+    private final BlockingQueue<PendingTransfer> writing;
+    private final Map<String, TransferStatus> statuses;
+    private final Thread pricer;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public AsyncTransactionService(
+            TransactionService transactionService,
+            QuoteService quoteService,
+            WalletRepository walletRepository,
+            MeterRegistry registry,
+            @Value(value = "${application.transactions.async.capacity}") int capacity,
+            @Value(value = "${application.transactions.async.max-tracked}") int maxTracked
+    ) {
+        this.transactionService = transactionService;
+        this.quoteService = quoteService;
+        this.walletRepository = walletRepository;
+        this.pricing = new ArrayBlockingQueue<>(capacity);
+        this.writing = new ArrayBlockingQueue<>(capacity);
+        this.statuses = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TransferStatus> eldest) {
+                return size() > maxTracked;
+            }
+        });
+
+        Gauge.builder("transfer.pipeline.depth", pricing, BlockingQueue::size).tag("stage", "pricing").register(registry);
+        Gauge.builder("transfer.pipeline.depth", writing, BlockingQueue::size).tag("stage", "writing").register(registry);
+
+        this.pricer = new Thread(() -> stage(pricing, this::price), "transfer-pricer");
+        this.writer = new Thread(() -> stage(writing, this::write), "transfer-writer");
+        this.pricer.setDaemon(true);
+        this.writer.setDaemon(true);
+        this.pricer.start();
+        this.writer.start();
+    }
+
+    public ResponseEntity<ApiResponse> transact(TransactionRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        validate(request);
+
+        TransferStatus status = TransferStatus.builder()
+                .transferId(UUID.randomUUID().toString())
+                .username(username)
+                .stage(TransferStage.ACCEPTED)
+                .updatedAt(System.currentTimeMillis())
+                .build();
+        statuses.put(status.getTransferId(), status);
+        if (!running || !pricing.offer(new PendingTransfer(status.getTransferId(), username, request, null))) {
+            statuses.remove(status.getTransferId());
+            throw new TransferQueueFullException();
+        }
+
+        ApiResponse response = ApiResponse.builder()
+                .message("Transfer accepted")
+                .developerMessage("transfer accepted")
+                .status(HttpStatus.ACCEPTED)
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .data(Map.of("transfer", status))
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    public ResponseEntity<ApiResponse> status(String transferId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        TransferStatus status = statuses.get(transferId);
+        if (status == null || !status.getUsername().equals(username)) {
+            throw new TransferNotFoundException();
+        }
+
+        ApiResponse response = ApiResponse.builder()
+                .message("Fetched")
+                .developerMessage("fetched")
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .data(Map.of("transfer", status))
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        pricer.interrupt();
+        writer.interrupt();
+    }
+
+    private static void validate(TransactionRequest request) {
+        if (request.getSendingWalletId() == null || request.getReceivingWalletId() == null
+                || request.getReceiver() == null || request.getMoney() == null) {
+            throw new IncompleteTransferException();
+        }
+        if (request.getMoney().getAmountMinor() < 1) {
+            throw new InvalidAmountException();
+        }
+        if (request.getSendingWalletId().equals(request.getReceivingWalletId())) {
+            throw new TransactionForSameWalletException();
+        }
+    }
+
+    private void stage(BlockingQueue<PendingTransfer> queue, Consumer<PendingTransfer> step) {
+        while (running) {
+            PendingTransfer transfer;
+            try {
+                transfer = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                step.accept(transfer);
+            } catch (RuntimeException e) {
+                update(transfer, status -> status.stage(TransferStage.FAILED).error(e.getClass().getSimpleName()));
+            }
+        }
+    }
+
+    private void price(PendingTransfer transfer) {
+        TransactionRequest request = transfer.request();
+        Quote price = null;
+        if (request.getQuoteId() == null) {
+            Optional<Wallet> receivingWallet = walletRepository.findById(request.getReceivingWalletId());
+            if (receivingWallet.isPresent()) {
+                price = quoteService.price(
+                        transfer.username(), request.getMoney(), receivingWallet.get().getMoney().getCurrency());
+            }
+        }
+        update(transfer, status -> status.stage(TransferStage.PRICED));
+
+        try {
+            writing.put(new PendingTransfer(transfer.transferId(), transfer.username(), request, price));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Transfer pipeline is shut down");
+        }
+    }
+
+    private void write(PendingTransfer transfer) {
+        Transaction transaction = transfer.price() != null
+                ? transactionService.send(transfer.username(), transfer.request(), transfer.price())
+                : transactionService.send(transfer.username(), transfer.request());
+        update(transfer, status -> status.stage(TransferStage.COMPLETED).transactionId(transaction.getId()));
+    }
+
+    private void update(PendingTransfer transfer, Consumer<TransferStatus.TransferStatusBuilder> change) {
+        statuses.computeIfPresent(transfer.transferId(), (id, status) -> {
+            TransferStatus.TransferStatusBuilder builder = status.toBuilder().updatedAt(System.currentTimeMillis());
+            change.accept(builder);
+            return builder.build();
+        });
+    }
+
+    private record PendingTransfer(String transferId, String username, TransactionRequest request, Quote price) {
+    }
+}
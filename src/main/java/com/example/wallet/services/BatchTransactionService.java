@@ -0,0 +1,474 @@
+package com.example.wallet.services;
+
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.FeeSchedule;
+import com.example.wallet.components.LedgerEngine;
+import com.example.wallet.components.LedgerEventStore;
+import com.example.wallet.components.QuoteStore;
+import com.example.wallet.components.TransferBatchWriter;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.components.WalletShards;
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.BatchItemResult;
+import com.example.wallet.dto.BatchTransactionRequest;
+import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.dto.TransactionRequest;
+import com.example.wallet.enums.BatchMode;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.TransactionType;
+import com.example.wallet.exceptions.ConverterUnavailableException;
+import com.example.wallet.exceptions.IncompatibleCurrencyException;
+import com.example.wallet.exceptions.IncompleteTransferException;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.exceptions.InvalidBatchException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.exceptions.QuoteMismatchException;
+import com.example.wallet.exceptions.QuoteNotFoundException;
+import com.example.wallet.exceptions.TransactionForSameWalletException;
+import com.example.wallet.exceptions.UnauthorizedWalletAccessException;
+import com.example.wallet.exceptions.UnsupportedBatchModeException;
+import com.example.wallet.models.PassbookEntry;
+import com.example.wallet.models.Transaction;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs many transfers of one sender as a single database transaction.
+ */
+@Service
+public class BatchTransactionService {
+    private final WalletRepository walletRepository;
+    private final CurrencyConverter currencyConverter;
+    private final FeeSchedule feeSchedule;
+    private final QuoteStore quoteStore;
+    private final WalletLocks walletLocks;
+    private final WalletRetryExecutor retryExecutor;
+    private final WalletLockManager walletLockManager;
+    private final TransferBatchWriter batchWriter;
+    private final LedgerEngine ledgerEngine;
+    private final LedgerEventStore eventStore;
+    private final WalletShards walletShards;
+    private final TransactionService transactionService;
+    private final int maxSize;
+
+    public BatchTransactionService(
+            WalletRepository walletRepository,
+            CurrencyConverter currencyConverter,
+            FeeSchedule feeSchedule,
+            QuoteStore quoteStore,
+            WalletLocks walletLocks,
+            WalletRetryExecutor retryExecutor,
+            WalletLockManager walletLockManager,
+            TransferBatchWriter batchWriter,
+            LedgerEngine ledgerEngine,
+            LedgerEventStore eventStore,
+            WalletShards walletShards,
+            TransactionService transactionService,
+            @Value(value = "${application.transactions.batch.max-size}") int maxSize
+    ) {
+        this.walletRepository = walletRepository;
+        this.currencyConverter = currencyConverter;
+        this.feeSchedule = feeSchedule;
+        this.quoteStore = quoteStore;
+        this.walletLocks = walletLocks;
+        this.retryExecutor = retryExecutor;
+        this.walletLockManager = walletLockManager;
+        this.batchWriter = batchWriter;
+        this.ledgerEngine = ledgerEngine;
+        this.eventStore = eventStore;
+        this.walletShards = walletShards;
+        this.transactionService = transactionService;
+        this.maxSize = maxSize;
+    }
+
+    public ResponseEntity<ApiResponse> transact(BatchTransactionRequest request) {
+        List<TransactionRequest> items = request.getTransactions();
+        if (items == null || items.isEmpty() || items.size() > maxSize) {
+            throw new InvalidBatchException();
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        BatchMode mode = request.getMode() == null ? BatchMode.ALL_OR_NOTHING : request.getMode();
+        if (ledgerEngine.isEnabled()) {
+            if (mode == BatchMode.ALL_OR_NOTHING) {
+                throw new UnsupportedBatchModeException();
+            }
+            return complete(mode, sendEach(username, items));
+        }
+
+        Set<Long> walletIds = new TreeSet<>();
+        Set<Long> lockedIds = new TreeSet<>();
+        for (TransactionRequest item : items) {
+            if (item.getSendingWalletId() != null) {
+                walletIds.add(item.getSendingWalletId());
+                lockedIds.add(item.getSendingWalletId());
+            }
+            if (item.getReceivingWalletId() != null) {
+                walletIds.add(item.getReceivingWalletId());
+                if (!walletShards.isSharded(item.getReceivingWalletId())) {
+                    lockedIds.add(item.getReceivingWalletId());
+                }
+            }
+        }
+
+        Map<String, Quote> claimed = new HashMap<>();
+        for (TransactionRequest item : items) {
+            if (item.getQuoteId() != null && !claimed.containsKey(item.getQuoteId())) {
+                quoteStore.claim(item.getQuoteId()).ifPresent(quote -> claimed.put(quote.getQuoteId(), quote));
+            }
+        }
+
+        List<BatchItemResult> results;
+        try {
+            Supplier<List<BatchItemResult>> batch = () -> run(username, mode, items, walletIds, lockedIds, claimed);
+            results = eventStore.isEnabled() ? retryExecutor.retrying(batch) : retryExecutor.execute(batch);
+        } catch (BatchAbortedException aborted) {
+            claimed.values().forEach(quoteStore::restore);
+            ApiResponse response = ApiResponse.builder()
+                    .message("Batch rolled back")
+                    .developerMessage("batch rolled back")
+                    .status(HttpStatus.BAD_REQUEST)
+                    .statusCode(HttpStatus.BAD_REQUEST.value())
+                    .data(Map.of("mode", mode, "results", aborted.results))
+                    .build();
+
+            return ResponseEntity.status(response.getStatus()).body(response);
+        } catch (RuntimeException e) {
+            claimed.values().forEach(quoteStore::restore);
+            throw e;
+        }
+
+        for (BatchItemResult result : results) {
+            String quoteId = items.get(result.getIndex()).getQuoteId();
+            if (result.getStatus() == HttpStatus.OK && quoteId != null) {
+                claimed.remove(quoteId);
+            }
+        }
+        claimed.values().forEach(quoteStore::restore);
+
+        return complete(mode, results);
+    }
+
+    private ResponseEntity<ApiResponse> complete(BatchMode mode, List<BatchItemResult> results) {
+        ApiResponse response = ApiResponse.builder()
+                .message("Batch complete")
+                .developerMessage("batch complete")
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .data(Map.of("mode", mode, "results", results))
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    private List<BatchItemResult> sendEach(String username, List<TransactionRequest> items) {
+        List<BatchItemResult> results = new ArrayList<>();
+        for (int index = 0; index < items.size(); index++) {
+            try {
+                validate(items.get(index));
+                Transaction transaction = transactionService.send(username, items.get(index));
+                results.add(BatchItemResult.builder()
+                        .index(index)
+                        .status(HttpStatus.OK)
+                        .transactionId(transaction.getId())
+                        .build());
+            } catch (ConverterUnavailableException e) {
+                throw e;
+            } catch (IllegalArgumentException e) {
+                results.add(BatchItemResult.builder()
+                        .index(index)
+                        .status(HttpStatus.BAD_REQUEST)
+                        .error(e.getClass().getSimpleName())
+                        .build());
+            }
+        }
+        return results;
+    }
+
+    private List<BatchItemResult> run(
+            String username,
+            BatchMode mode,
+            List<TransactionRequest> items,
+            Set<Long> walletIds,
+            Set<Long> lockedIds,
+            Map<String, Quote> claimed
+    ) {
+        Map<Long, Wallet> wallets = walletRepository.findAllWithUsersByIdIn(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        Map<List<Currency>, Double> rates = rates(items, wallets, claimed);
+        if (eventStore.isEnabled()) {
+            return applyAll(username, mode, items, wallets, rates, claimed);
+        }
+
+        List<Long> credited = items.stream()
+                .map(TransactionRequest::getReceivingWalletId)
+                .filter(Objects::nonNull)
+                .toList();
+        return walletLockManager.withLocks(lockedIds, credited, () -> {
+            walletLocks.lock(lockedIds.toArray(Long[]::new));
+            walletLocks.reload(wallets.values().toArray(Wallet[]::new));
+            return applyAll(username, mode, items, wallets, rates, claimed);
+        });
+    }
+
+    private List<BatchItemResult> applyAll(
+            String username,
+            BatchMode mode,
+            List<TransactionRequest> items,
+            Map<Long, Wallet> wallets,
+            Map<List<Currency>, Double> rates,
+            Map<String, Quote> claimed
+    ) {
+        Map<Long, LedgerEventStore.Head> heads = new HashMap<>();
+        Map<String, Quote> quotes = new HashMap<>(claimed);
+
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        List<PassbookEntry> entries = new ArrayList<>();
+        for (int index = 0; index < items.size(); index++) {
+            try {
+                Transaction transaction = apply(username, items.get(index), wallets, rates, heads, quotes);
+                transactions.add(transaction);
+                entries.add(transaction.getSenderEntry());
+                entries.add(transaction.getReceiverEntry());
+                results.add(BatchItemResult.builder().index(index).status(HttpStatus.OK).build());
+            } catch (ConverterUnavailableException e) {
+                throw e;
+            } catch (IllegalArgumentException e) {
+                BatchItemResult failed = BatchItemResult.builder()
+                        .index(index)
+                        .status(HttpStatus.BAD_REQUEST)
+                        .error(e.getClass().getSimpleName())
+                        .build();
+                if (mode == BatchMode.ALL_OR_NOTHING) {
+                    throw new BatchAbortedException(aborted(items.size(), failed));
+                }
+                results.add(failed);
+            }
+        }
+
+        if (!eventStore.isEnabled()) {
+            walletRepository.saveAll(wallets.values());
+        }
+        batchWriter.insertEntries(entries);
+        batchWriter.insertTransactions(transactions);
+
+        int applied = 0;
+        for (BatchItemResult result : results) {
+            if (result.getStatus() == HttpStatus.OK) {
+                result.setTransactionId(transactions.get(applied++).getId());
+            }
+        }
+
+        return results;
+    }
+
+    private Map<List<Currency>, Double> rates(
+            List<TransactionRequest> items,
+            Map<Long, Wallet> wallets,
+            Map<String, Quote> claimed
+    ) {
+        Map<List<Currency>, Double> rates = new HashMap<>();
+        for (TransactionRequest item : items) {
+            Wallet receiversWallet = wallets.get(item.getReceivingWalletId());
+            if (item.getMoney() == null || item.getMoney().getCurrency() == null || receiversWallet == null || claimed.containsKey(item.getQuoteId())) {
+                continue;
+            }
+
+            Currency from = item.getMoney().getCurrency();
+            Currency to = receiversWallet.getMoney().getCurrency();
+            if (from != to && !rates.containsKey(List.of(from, to))) {
+                try {
+                    rates.put(List.of(from, to), currencyConverter.rate(from, to));
+                } catch (ConverterUnavailableException e) {
+                    throw e;
+                } catch (IllegalArgumentException e) {
+                    // Reported by each transfer that needs the pair.
+                }
+            }
+        }
+        return rates;
+    }
+
+    private Transaction apply(
+            String username,
+            TransactionRequest item,
+            Map<Long, Wallet> wallets,
+            Map<List<Currency>, Double> rates,
+            Map<Long, LedgerEventStore.Head> heads,
+            Map<String, Quote> quotes
+    ) {
+        validate(item);
+        Wallet usersWallet = ownedWallet(wallets, item.getSendingWalletId(), username);
+        Wallet anotherUsersWallet = ownedWallet(wallets, item.getReceivingWalletId(), item.getReceiver());
+        if (usersWallet == anotherUsersWallet) {
+            throw new TransactionForSameWalletException();
+        }
+        if (usersWallet.getMoney().getCurrency() != item.getMoney().getCurrency()) {
+            throw new IncompatibleCurrencyException();
+        }
+
+        Currency from = item.getMoney().getCurrency();
+        Currency to = anotherUsersWallet.getMoney().getCurrency();
+        Money forexMoney;
+        Money serviceCharge;
+        if (item.getQuoteId() != null) {
+            Quote quote = quotes.get(item.getQuoteId());
+            if (quote == null) {
+                throw new QuoteNotFoundException();
+            }
+            if (!quote.matches(username, item.getMoney(), to)) {
+                throw new QuoteMismatchException();
+            }
+            quotes.remove(item.getQuoteId());
+            forexMoney = quote.getConverted();
+            serviceCharge = quote.getServiceCharge();
+        } else if (from == to) {
+            forexMoney = item.getMoney();
+            serviceCharge = null;
+        } else {
+            double rate = rates.computeIfAbsent(List.of(from, to), pair -> currencyConverter.rate(from, to));
+            forexMoney = item.getMoney().convertedAt(rate, to);
+            serviceCharge = feeSchedule.charge(item.getMoney(), to);
+        }
+
+        Long timestamp = System.currentTimeMillis();
+        if (eventStore.isEnabled()) {
+            appendLegs(usersWallet, anotherUsersWallet, item.getMoney(), forexMoney, serviceCharge, heads, timestamp);
+        } else {
+            walletShards.cover(usersWallet,
+                    item.getMoney().getAmountMinor() + (serviceCharge != null ? serviceCharge.getAmountMinor() : 0));
+            long sendersBalance = usersWallet.getMoney().getAmountMinor();
+            long receiversBalance = anotherUsersWallet.getMoney().getAmountMinor();
+            try {
+                if (serviceCharge != null) {
+                    usersWallet.withdraw(serviceCharge);
+                }
+                usersWallet.withdraw(item.getMoney());
+                walletShards.deposit(anotherUsersWallet, forexMoney);
+            } catch (IllegalArgumentException e) {
+                usersWallet.getMoney().setAmountMinor(sendersBalance);
+                anotherUsersWallet.getMoney().setAmountMinor(receiversBalance);
+                throw e;
+            }
+        }
+
+        PassbookEntry senderEntry = PassbookEntry.builder()
+                .money(item.getMoney())
+                .timestamp(timestamp)
+                .wallet(usersWallet)
+                .type(TransactionType.TRANSFERRED)
+                .serviceCharge(serviceCharge != null ? serviceCharge.getAmount() : 0.0)
+                .build();
+
+        PassbookEntry receiverEntry = PassbookEntry.builder()
+                .money(forexMoney)
+                .timestamp(timestamp)
+                .wallet(anotherUsersWallet)
+                .type(TransactionType.RECEIVED)
+                .serviceCharge(0.0)
+                .build();
+
+        return Transaction.builder()
+                .sender(usersWallet.getUser())
+                .receiver(anotherUsersWallet.getUser())
+                .senderEntry(senderEntry)
+                .receiverEntry(receiverEntry)
+                .build();
+    }
+
+    private void appendLegs(
+            Wallet usersWallet,
+            Wallet anotherUsersWallet,
+            Money money,
+            Money forexMoney,
+            Money serviceCharge,
+            Map<Long, LedgerEventStore.Head> heads,
+            long timestamp
+    ) {
+        if (money.getAmountMinor() < 1 || forexMoney.getAmountMinor() < 1) {
+            throw new InvalidAmountException();
+        }
+        long debitMinor = money.getAmountMinor() + (serviceCharge != null ? serviceCharge.getAmountMinor() : 0);
+
+        LedgerEventStore.Head sendersHead = heads.computeIfAbsent(usersWallet.getId(), id -> eventStore.head(usersWallet));
+        if (sendersHead.balanceMinor() < debitMinor) {
+            throw new OverWithdrawalException();
+        }
+
+        // Legs go in wallet id order, as in TransactionService, so opposite
+        // transfers cannot deadlock on each other's (wallet_id, seq) keys.
+        if (usersWallet.getId() < anotherUsersWallet.getId()) {
+            appendLeg(usersWallet, -debitMinor, TransactionType.TRANSFERRED, heads, timestamp);
+            appendLeg(anotherUsersWallet, forexMoney.getAmountMinor(), TransactionType.RECEIVED, heads, timestamp);
+        } else {
+            appendLeg(anotherUsersWallet, forexMoney.getAmountMinor(), TransactionType.RECEIVED, heads, timestamp);
+            appendLeg(usersWallet, -debitMinor, TransactionType.TRANSFERRED, heads, timestamp);
+        }
+    }
+
+    private void appendLeg(
+            Wallet wallet,
+            long amountMinor,
+            TransactionType type,
+            Map<Long, LedgerEventStore.Head> heads,
+            long timestamp
+    ) {
+        LedgerEventStore.Head head = heads.computeIfAbsent(wallet.getId(), id -> eventStore.head(wallet));
+        heads.put(wallet.getId(), eventStore.append(wallet, head, amountMinor, type, timestamp));
+    }
+
+    private static void validate(TransactionRequest item) {
+        if (item.getSendingWalletId() == null || item.getReceivingWalletId() == null
+                || item.getReceiver() == null || item.getMoney() == null || item.getMoney().getCurrency() == null) {
+            throw new IncompleteTransferException();
+        }
+    }
+
+    private static Wallet ownedWallet(Map<Long, Wallet> wallets, Long walletId, String username) {
+        Wallet wallet = wallets.get(walletId);
+        if (wallet == null || !Objects.equals(wallet.getUser().getUsername(), username)) {
+            throw new UnauthorizedWalletAccessException();
+        }
+        return wallet;
+    }
+
+    private static List<BatchItemResult> aborted(int size, BatchItemResult failed) {
+        List<BatchItemResult> results = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            results.add(index == failed.getIndex()
+                    ? failed
+                    : BatchItemResult.builder().index(index).status(HttpStatus.FAILED_DEPENDENCY).build());
+        }
+        return results;
+    }
+
+    private static class BatchAbortedException extends RuntimeException {
+        private final List<BatchItemResult> results;
+
+        BatchAbortedException(List<BatchItemResult> results) {
+            super(null, null, false, false);
+            this.results = results;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.wallet.services;
+
+import com.example.wallet.components.CurrencyConversionClient;
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.ConverterEndpointsDTO;
+import com.example.wallet.exceptions.InvalidConverterEndpointsException;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class ConverterService {
+    private final CurrencyConversionClient conversionClient;
+
+    public ResponseEntity<ApiResponse> endpoints() {
+        ApiResponse response = ApiResponse.builder()
+                .message("Converter endpoints")
+                .developerMessage("converter endpoints")
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .data(Map.of(
+                        "endpoints", conversionClient.endpoints(),
+                        "healthy", conversionClient.healthyEndpoints()
+                ))
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    public ResponseEntity<ApiResponse> updateEndpoints(ConverterEndpointsDTO request) {
+        if (request.getEndpoints() == null || request.getEndpoints().isEmpty()) {
+            throw new InvalidConverterEndpointsException();
+        }
+
+        conversionClient.updateEndpoints(request.getEndpoints());
+
+        ApiResponse response = ApiResponse.builder()
+                .message("Converter endpoints updated")
+                .developerMessage("converter endpoints updated")
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .data(Map.of("endpoints", conversionClient.endpoints()))
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+}
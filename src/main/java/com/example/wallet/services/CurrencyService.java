@@ -2,6 +2,7 @@ package com.example.wallet.services;
 
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.dto.CurrencyDTO;
+import com.example.wallet.dto.CurrencyRatesChangedEvent;
 import com.example.wallet.exceptions.CurrencyAlreadyExistsException;
 import com.example.wallet.models.CurrencyValue;
 import com.example.wallet.repository.CurrencyRepository;
@@ -9,9 +10,11 @@ import com.example.wallet.exceptions.CurrencyNotFoundException;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,7 +24,9 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CurrencyService {
     private final CurrencyRepository currencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Transactional
     public ResponseEntity<ApiResponse> add(CurrencyDTO request) {
         if (currencyRepository.existsById(request.getCurrency())) {
             throw new CurrencyAlreadyExistsException();
@@ -29,6 +34,7 @@ public class CurrencyService {
 
         CurrencyValue currency = new CurrencyValue(request.getCurrency(), request.getValue());
         currencyRepository.save(currency);
+        eventPublisher.publishEvent(new CurrencyRatesChangedEvent(List.of(request.getCurrency())));
 
         ApiResponse response = ApiResponse.builder()
                 .message("Currency added to the database")
@@ -41,6 +47,7 @@ public class CurrencyService {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @Transactional
     public ResponseEntity<ApiResponse> update(List<CurrencyDTO> requests) {
         List<CurrencyValue> currencies = new ArrayList<>();
 
@@ -52,6 +59,9 @@ public class CurrencyService {
         }
 
         currencyRepository.saveAll(currencies);
+        eventPublisher.publishEvent(new CurrencyRatesChangedEvent(
+                currencies.stream().map(CurrencyValue::getCurrency).toList()
+        ));
 
         ApiResponse response = ApiResponse.builder()
                 .message("All currencies updated")
@@ -64,6 +74,7 @@ public class CurrencyService {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @Transactional
     public ResponseEntity<ApiResponse> update(CurrencyDTO request) {
         return this.update(List.of(request));
     }
@@ -0,0 +1,59 @@
+package com.example.wallet.services;
+
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.FeeSchedule;
+import com.example.wallet.components.QuoteStore;
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.dto.QuoteRequest;
+import com.example.wallet.enums.Currency;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class QuoteService {
+    private final CurrencyConverter currencyConverter;
+
+    private final FeeSchedule feeSchedule;
+
+    private final QuoteStore quoteStore;
+
+    public ResponseEntity<ApiResponse> quote(QuoteRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Quote quote = issue(username, request.getMoney(), request.getCurrency());
+
+        ApiResponse response = ApiResponse.builder()
+                .message("Quote issued")
+                .developerMessage("quote issued")
+                .status(HttpStatus.CREATED)
+                .statusCode(HttpStatus.CREATED.value())
+                .data(Map.of("quote", quote))
+                .build();
+
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    public Quote issue(String username, Money money, Currency currency) {
+        return quoteStore.issue(price(username, money, currency));
+    }
+
+    public Quote price(String username, Money money, Currency currency) {
+        double rate = currencyConverter.rate(money.getCurrency(), currency);
+        return Quote.builder()
+                .username(username)
+                .money(money)
+                .converted(money.convertedAt(rate, currency))
+                .rate(rate)
+                .serviceCharge(money.getCurrency() == currency ? null : feeSchedule.charge(money, currency))
+                .build();
+    }
+}
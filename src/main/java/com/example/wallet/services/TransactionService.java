@@ -1,15 +1,34 @@
 package com.example.wallet.services;
 
+import com.example.wallet.components.ConversionPlan;
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.FeeSchedule;
+import com.example.wallet.components.LedgerEngine;
+import com.example.wallet.components.LedgerEventStore;
+import com.example.wallet.components.QuoteStore;
+import com.example.wallet.components.TransferGroupCommitter;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.components.WalletShards;
 import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.LedgerRecord;
 import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
 import com.example.wallet.dto.TransactionRequest;
 import com.example.wallet.dto.TransactionResponse;
+import com.example.wallet.enums.ConversionLeg;
 import com.example.wallet.enums.Currency;
 import com.example.wallet.enums.TransactionType;
 import com.example.wallet.exceptions.IncompatibleCurrencyException;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.exceptions.QuoteMismatchException;
+import com.example.wallet.exceptions.QuoteNotFoundException;
 import com.example.wallet.exceptions.TransactionForSameWalletException;
 import com.example.wallet.exceptions.UnauthorizedWalletAccessException;
 import com.example.wallet.exceptions.UserNotFoundException;
+import com.example.wallet.exceptions.WalletNotFoundException;
 import com.example.wallet.models.PassbookEntry;
 import com.example.wallet.models.Transaction;
 import com.example.wallet.models.User;
@@ -29,6 +48,8 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -41,71 +62,238 @@ public class TransactionService {
 
     private final PassbookEntryRepository passbookEntryRepository;
 
+    private final CurrencyConverter currencyConverter;
+
+    private final FeeSchedule feeSchedule;
+
+    private final QuoteStore quoteStore;
+
+    private final WalletLocks walletLocks;
+
+    private final WalletRetryExecutor retryExecutor;
+
+    private final WalletLockManager walletLockManager;
+
+    private final TransferGroupCommitter groupCommitter;
+
+    private final LedgerEngine ledgerEngine;
+
+    private final LedgerEventStore eventStore;
+
+    private final WalletShards walletShards;
+
     public ResponseEntity<ApiResponse> transact(TransactionRequest request) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username).orElseThrow(UserNotFoundException::new);
-        User anotherUser = userRepository.findByUsername(request.getReceiver()).orElseThrow(UserNotFoundException::new);
-        Wallet usersWallet = walletRepository.findByIdAndUser(request.getSendingWalletId(), user)
-                .orElseThrow(UnauthorizedWalletAccessException::new);
-        Wallet anotherUsersWallet = walletRepository.findByIdAndUser(request.getReceivingWalletId(), anotherUser)
-                .orElseThrow(UnauthorizedWalletAccessException::new);
+        Transaction transaction = send(username, request);
 
-        isSameWallet(usersWallet, anotherUsersWallet);
-        isIncompatibleCurrency(request, usersWallet);
+        ApiResponse response = ApiResponse.builder()
+                .timestamp(transaction.getSenderEntry().getTimestamp())
+                .message("Transaction complete")
+                .developerMessage("transaction complete")
+                .statusCode(HttpStatus.OK.value())
+                .status(HttpStatus.OK)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    public Transaction send(String username, TransactionRequest request) {
+        Quote quote = request.getQuoteId() != null
+                ? quoteStore.claim(request.getQuoteId()).orElseThrow(QuoteNotFoundException::new)
+                : null;
 
-        Money forexMoney = null;
-        Money serviceCharge = null;
-        Currency anotherUserCurrency = anotherUsersWallet.getMoney().getCurrency();
-        if (!anotherUserCurrency.equals(request.getMoney().getCurrency())) {
-            serviceCharge = new Money(10.0, Currency.INR);
-            serviceCharge = serviceCharge.convert(usersWallet.getMoney().getCurrency());
-            forexMoney = request.getMoney().convert(anotherUserCurrency);
+        try {
+            return send(username, request, quote);
+        } catch (RuntimeException e) {
+            if (quote != null) {
+                quoteStore.restore(quote);
+            }
+            throw e;
         }
+    }
 
-        if (serviceCharge != null) {
-            usersWallet.withdraw(serviceCharge);
+    public Transaction send(String username, TransactionRequest request, Quote quote) {
+        if (ledgerEngine.isEnabled()) {
+            return sendThroughEngine(username, request, quote);
+        } else if (eventStore.isEnabled()) {
+            return retryExecutor.retrying(() -> transferAsEvents(username, request, quote));
+        } else if (groupCommitter.isEnabled()) {
+            Plan plan = plan(username, request, quote);
+            return groupCommitter.commit(lockedWallets(request), () -> apply(attached(plan), request));
+        }
+        return retryExecutor.execute(() -> transfer(username, request, quote));
+    }
+
+    private Transaction sendThroughEngine(String username, TransactionRequest request, Quote quote) {
+        Currency sendersCurrency = ledgerEngine.currency(request.getSendingWalletId());
+        Currency receiversCurrency = ledgerEngine.currency(request.getReceivingWalletId());
+        if (sendersCurrency == null || receiversCurrency == null) {
+            throw missingWallet(username, request.getReceiver());
+        }
+        if (sendersCurrency != request.getMoney().getCurrency()) {
+            throw new IncompatibleCurrencyException();
+        }
+
+        Price price = price(username, request, quote, receiversCurrency);
+        LedgerRecord record = ledgerEngine.transfer(
+                username,
+                request.getSendingWalletId(),
+                request.getReceiver(),
+                request.getReceivingWalletId(),
+                request.getMoney().getAmountMinor(),
+                price.converted().getAmountMinor(),
+                price.serviceCharge() != null ? price.serviceCharge().getAmountMinor() : 0
+        );
+
+        return Transaction.builder()
+                .sender(User.builder().id(record.debitOwnerId()).username(username).build())
+                .receiver(User.builder().id(record.creditOwnerId()).username(request.getReceiver()).build())
+                .senderEntry(PassbookEntry.builder()
+                        .money(request.getMoney())
+                        .timestamp(record.timestamp())
+                        .type(TransactionType.TRANSFERRED)
+                        .serviceCharge(price.serviceCharge() != null ? price.serviceCharge().getAmount() : 0.0)
+                        .build())
+                .receiverEntry(PassbookEntry.builder()
+                        .money(price.converted())
+                        .timestamp(record.timestamp())
+                        .type(TransactionType.RECEIVED)
+                        .serviceCharge(0.0)
+                        .build())
+                .build();
+    }
+
+    private Transaction transfer(String username, TransactionRequest request, Quote quote) {
+        Transaction transaction = prepare(username, request, quote);
+        passbookEntryRepository.saveAll(List.of(transaction.getSenderEntry(), transaction.getReceiverEntry()));
+        transactionRepository.save(transaction);
+        return transaction;
+    }
+
+    private Transaction prepare(String username, TransactionRequest request, Quote quote) {
+        Plan plan = plan(username, request, quote);
+        List<Long> walletIds = lockedWallets(request);
+        return walletLockManager.withLocks(walletIds, List.of(request.getReceivingWalletId()), () -> {
+            walletLocks.lock(walletIds.toArray(Long[]::new));
+            walletLocks.reload(plan.sender(), plan.receiver());
+            return apply(plan, request);
+        });
+    }
+
+    private Transaction apply(Plan plan, TransactionRequest request) {
+        Wallet usersWallet = plan.sender();
+        Wallet anotherUsersWallet = plan.receiver();
+        long debitMinor = request.getMoney().getAmountMinor()
+                + (plan.serviceCharge() != null ? plan.serviceCharge().getAmountMinor() : 0);
+        walletShards.cover(usersWallet, debitMinor);
+
+        if (plan.serviceCharge() != null) {
+            usersWallet.withdraw(plan.serviceCharge());
         }
 
         usersWallet.withdraw(request.getMoney());
-        anotherUsersWallet.deposit(forexMoney != null ? forexMoney : request.getMoney());
+        walletShards.deposit(anotherUsersWallet, plan.converted());
+
+        walletRepository.saveAll(List.of(usersWallet, anotherUsersWallet));
+
+        return transaction(plan, request, System.currentTimeMillis());
+    }
+
+    private Transaction transferAsEvents(String username, TransactionRequest request, Quote quote) {
+        Plan plan = plan(username, request, quote);
+        if (request.getMoney().getAmountMinor() < 1 || plan.converted().getAmountMinor() < 1) {
+            throw new InvalidAmountException();
+        }
+        long debitMinor = request.getMoney().getAmountMinor()
+                + (plan.serviceCharge() != null ? plan.serviceCharge().getAmountMinor() : 0);
+        long timestamp = System.currentTimeMillis();
 
-        Long timestamp = System.currentTimeMillis();
+        LedgerEventStore.Head sendersHead = eventStore.head(plan.sender());
+        LedgerEventStore.Head receiversHead = eventStore.head(plan.receiver());
+        if (sendersHead.balanceMinor() < debitMinor) {
+            throw new OverWithdrawalException();
+        }
+
+        // Legs go in wallet id order, so opposite transfers insert their
+        // (wallet_id, seq) keys in the same order and cannot deadlock.
+        if (plan.sender().getId() < plan.receiver().getId()) {
+            eventStore.append(plan.sender(), sendersHead, -debitMinor, TransactionType.TRANSFERRED, timestamp);
+            eventStore.append(plan.receiver(), receiversHead,
+                    plan.converted().getAmountMinor(), TransactionType.RECEIVED, timestamp);
+        } else {
+            eventStore.append(plan.receiver(), receiversHead,
+                    plan.converted().getAmountMinor(), TransactionType.RECEIVED, timestamp);
+            eventStore.append(plan.sender(), sendersHead, -debitMinor, TransactionType.TRANSFERRED, timestamp);
+        }
+
+        Transaction transaction = transaction(plan, request, timestamp);
+        passbookEntryRepository.saveAll(List.of(transaction.getSenderEntry(), transaction.getReceiverEntry()));
+        transactionRepository.save(transaction);
+        return transaction;
+    }
+
+    private List<Long> lockedWallets(TransactionRequest request) {
+        if (walletShards.isSharded(request.getReceivingWalletId())) {
+            return List.of(request.getSendingWalletId());
+        }
+        return List.of(request.getSendingWalletId(), request.getReceivingWalletId());
+    }
+
+    private Plan plan(String username, TransactionRequest request, Quote quote) {
+        List<Wallet> wallets = walletRepository.findTransferWallets(
+                request.getSendingWalletId(), username, request.getReceivingWalletId(), request.getReceiver());
+        Wallet usersWallet = ownedWallet(wallets, request.getSendingWalletId(), username);
+        Wallet anotherUsersWallet = ownedWallet(wallets, request.getReceivingWalletId(), request.getReceiver());
+        if (usersWallet == null || anotherUsersWallet == null) {
+            throw missingWallet(username, request.getReceiver());
+        }
+
+        isSameWallet(usersWallet, anotherUsersWallet);
+        isIncompatibleCurrency(request, usersWallet);
+
+        Price price = price(username, request, quote, anotherUsersWallet.getMoney().getCurrency());
+        return new Plan(usersWallet, anotherUsersWallet, price.converted(), price.serviceCharge());
+    }
+
+    /**
+     * Re-reads the wallets of a plan priced on another thread inside the
+     * current transaction.
+     */
+    private Plan attached(Plan plan) {
+        Map<Long, Wallet> wallets = walletRepository.findAllWithUsersByIdIn(
+                        List.of(plan.sender().getId(), plan.receiver().getId())).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        Wallet usersWallet = wallets.get(plan.sender().getId());
+        Wallet anotherUsersWallet = wallets.get(plan.receiver().getId());
+        if (usersWallet == null || anotherUsersWallet == null) {
+            throw new WalletNotFoundException();
+        }
+        return new Plan(usersWallet, anotherUsersWallet, plan.converted(), plan.serviceCharge());
+    }
+
+    private static Transaction transaction(Plan plan, TransactionRequest request, Long timestamp) {
         PassbookEntry senderEntry = PassbookEntry.builder()
                 .money(request.getMoney())
                 .timestamp(timestamp)
-                .wallet(usersWallet)
+                .wallet(plan.sender())
                 .type(TransactionType.TRANSFERRED)
-                .serviceCharge(serviceCharge != null ? serviceCharge.getAmount() : 0.0)
+                .serviceCharge(plan.serviceCharge() != null ? plan.serviceCharge().getAmount() : 0.0)
                 .build();
 
         PassbookEntry receiverEntry = PassbookEntry.builder()
-                .money(forexMoney != null ? forexMoney : request.getMoney())
+                .money(plan.converted())
                 .timestamp(timestamp)
-                .wallet(usersWallet)
+                .wallet(plan.sender())
                 .type(TransactionType.RECEIVED)
                 .serviceCharge(0.0)
                 .build();
 
-        Transaction transaction = Transaction.builder()
-                .sender(user)
-                .receiver(anotherUser)
+        return Transaction.builder()
+                .sender(plan.sender().getUser())
+                .receiver(plan.receiver().getUser())
                 .senderEntry(senderEntry)
                 .receiverEntry(receiverEntry)
                 .build();
-
-        walletRepository.saveAll(List.of(usersWallet, anotherUsersWallet));
-        passbookEntryRepository.saveAll(List.of(senderEntry, receiverEntry));
-        transactionRepository.save(transaction);
-
-        ApiResponse response = ApiResponse.builder()
-                .timestamp(timestamp)
-                .message("Transaction complete")
-                .developerMessage("transaction complete")
-                .statusCode(HttpStatus.OK.value())
-                .status(HttpStatus.OK)
-                .build();
-
-        return ResponseEntity.ok(response);
     }
 
     public ResponseEntity<ApiResponse> fetch() {
@@ -135,9 +323,44 @@ public class TransactionService {
         }
     }
 
+    private static Wallet ownedWallet(List<Wallet> wallets, Long walletId, String username) {
+        for (Wallet wallet : wallets) {
+            if (wallet.getId().equals(walletId) && wallet.getUser().getUsername().equals(username)) {
+                return wallet;
+            }
+        }
+        return null;
+    }
+
+    private RuntimeException missingWallet(String username, String receiver) {
+        if (!userRepository.existsByUsername(username) || !userRepository.existsByUsername(receiver)) {
+            return new UserNotFoundException();
+        }
+        return new UnauthorizedWalletAccessException();
+    }
+
+    private Price price(String username, TransactionRequest request, Quote quote, Currency to) {
+        if (quote != null) {
+            if (!quote.matches(username, request.getMoney(), to)) {
+                throw new QuoteMismatchException();
+            }
+            return new Price(quote.getConverted(), quote.getServiceCharge());
+        }
+
+        ConversionPlan plan = new ConversionPlan().leg(ConversionLeg.CREDIT, request.getMoney(), to);
+        Money serviceCharge = plan.needsConversion() ? feeSchedule.charge(request.getMoney(), to) : null;
+        return new Price(plan.execute(currencyConverter).get(ConversionLeg.CREDIT), serviceCharge);
+    }
+
     private static void isSameWallet(Wallet usersWallet, Wallet anotherUsersWallet) {
         if (usersWallet.equals(anotherUsersWallet)) {
             throw new TransactionForSameWalletException();
         }
     }
+
+    private record Price(Money converted, Money serviceCharge) {
+    }
+
+    private record Plan(Wallet sender, Wallet receiver, Money converted, Money serviceCharge) {
+    }
 }
@@ -1,9 +1,20 @@
 package com.example.wallet.services;
 
+import com.example.wallet.components.ConversionPlan;
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.LedgerEngine;
+import com.example.wallet.components.LedgerEventStore;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.components.WalletShards;
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.dto.Money;
 import com.example.wallet.dto.WalletResponse;
+import com.example.wallet.enums.ConversionLeg;
+import com.example.wallet.enums.Currency;
 import com.example.wallet.enums.TransactionType;
+import com.example.wallet.exceptions.InvalidAmountException;
 import com.example.wallet.exceptions.UnauthorizedWalletAccessException;
 import com.example.wallet.exceptions.UserNotFoundException;
 import com.example.wallet.models.PassbookEntry;
@@ -30,10 +41,20 @@ public class WalletService {
     private final WalletRepository walletRepository;
     private final UserRepository userRepository;
     private final PassbookEntryRepository passbookEntryRepository;
+    private final CurrencyConverter currencyConverter;
+    private final WalletLocks walletLocks;
+    private final WalletRetryExecutor retryExecutor;
+    private final WalletLockManager walletLockManager;
+    private final LedgerEngine ledgerEngine;
+    private final LedgerEventStore eventStore;
+    private final WalletShards walletShards;
 
     public ResponseEntity<ApiResponse> create(User user) {
         Wallet wallet = new Wallet(user);
         walletRepository.save(wallet);
+        if (ledgerEngine.isEnabled()) {
+            ledgerEngine.open(wallet);
+        }
         ApiResponse response = ApiResponse.builder()
                 .message("New wallet created")
                 .developerMessage("wallet created")
@@ -58,17 +79,36 @@ public class WalletService {
         if (user == null) {
             throw new UserNotFoundException();
         }
+        if (ledgerEngine.isEnabled()) {
+            return changeThroughEngine(user, walletId, request, ConversionLeg.CREDIT);
+        }
+        if (eventStore.isEnabled()) {
+            return retryExecutor.retrying(() -> changeAsEvents(user, walletId, request, ConversionLeg.CREDIT));
+        }
+
+        return retryExecutor.execute(() -> applyDeposit(user, walletId, request));
+    }
 
+    private ResponseEntity<ApiResponse> applyDeposit(User user, Long walletId, Money request) {
         Wallet wallet = walletRepository.findByIdAndUser(walletId, user).orElseThrow(UnauthorizedWalletAccessException::new);
-        request = request.convert(wallet.getMoney().getCurrency());
-        wallet.deposit(request);
+        request = new ConversionPlan()
+                .leg(ConversionLeg.CREDIT, request, wallet.getMoney().getCurrency())
+                .execute(currencyConverter)
+                .get(ConversionLeg.CREDIT);
+        Money credited = request;
+        walletLockManager.withLocks(List.of(walletId), List.of(walletId), () -> {
+            walletLocks.lock(walletId);
+            walletLocks.reload(wallet);
+            wallet.deposit(credited);
+            return null;
+        });
 
         ApiResponse response = ApiResponse.builder()
                 .message("Amount deposited")
                 .developerMessage("Amount deposited")
                 .status(HttpStatus.OK)
                 .statusCode(HttpStatus.OK.value())
-                .data(Map.of("wallet", new WalletResponse(wallet)))
+                .data(Map.of("wallet", walletResponse(wallet)))
                 .build();
 
         Money depositedMoney = new Money(request.getAmount(), user.getLocation().getCurrency());
@@ -90,18 +130,106 @@ public class WalletService {
         if (user == null) {
             throw new UserNotFoundException();
         }
+        if (ledgerEngine.isEnabled()) {
+            return changeThroughEngine(user, walletId, request, ConversionLeg.DEBIT);
+        }
+        if (eventStore.isEnabled()) {
+            return retryExecutor.retrying(() -> changeAsEvents(user, walletId, request, ConversionLeg.DEBIT));
+        }
+
+        return retryExecutor.execute(() -> applyWithdraw(user, walletId, request));
+    }
+
+    private ResponseEntity<ApiResponse> changeThroughEngine(User user, Long walletId, Money request, ConversionLeg leg) {
+        Currency currency = ledgerEngine.currency(walletId);
+        if (currency == null) {
+            throw new UnauthorizedWalletAccessException();
+        }
+        long amountMinor = new ConversionPlan()
+                .leg(leg, request, currency)
+                .execute(currencyConverter)
+                .get(leg)
+                .getAmountMinor();
+
+        String message;
+        if (leg == ConversionLeg.CREDIT) {
+            ledgerEngine.deposit(user.getUsername(), walletId, amountMinor);
+            message = "Amount deposited";
+        } else {
+            ledgerEngine.withdraw(user.getUsername(), walletId, amountMinor);
+            message = "Amount withdrawn";
+        }
+
+        ApiResponse response = ApiResponse.builder()
+                .message(message)
+                .developerMessage(message)
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .data(Map.of("wallet", new WalletResponse(ledgerEngine.balance(walletId))))
+                .build();
 
+        return ResponseEntity.ok().body(response);
+    }
+
+    private ResponseEntity<ApiResponse> changeAsEvents(User user, Long walletId, Money request, ConversionLeg leg) {
         Wallet wallet = walletRepository.findByIdAndUser(walletId, user).orElseThrow(UnauthorizedWalletAccessException::new);
-        request = request.convert(wallet.getMoney().getCurrency());
+        Currency currency = wallet.getMoney().getCurrency();
+        long amountMinor = new ConversionPlan()
+                .leg(leg, request, currency)
+                .execute(currencyConverter)
+                .get(leg)
+                .getAmountMinor();
+        if (amountMinor < 1) {
+            throw new InvalidAmountException();
+        }
 
-        wallet.withdraw(request);
+        boolean deposit = leg == ConversionLeg.CREDIT;
+        TransactionType type = deposit ? TransactionType.DEPOSIT : TransactionType.WITHDRAW;
+        long timestamp = System.currentTimeMillis();
+        LedgerEventStore.Head head = eventStore.append(wallet, eventStore.head(wallet),
+                deposit ? amountMinor : -amountMinor, type, timestamp);
+
+        passbookEntryRepository.save(PassbookEntry.builder()
+                .timestamp(timestamp)
+                .wallet(wallet)
+                .money(new Money(Money.ofMinor(amountMinor, currency).getAmount(), user.getLocation().getCurrency()))
+                .type(type)
+                .serviceCharge(0.0)
+                .build());
+
+        String message = deposit ? "Amount deposited" : "Amount withdrawn";
+        ApiResponse response = ApiResponse.builder()
+                .message(message)
+                .developerMessage(message)
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .data(Map.of("wallet", new WalletResponse(Money.ofMinor(head.balanceMinor(), currency))))
+                .build();
+
+        return ResponseEntity.ok().body(response);
+    }
+
+    private ResponseEntity<ApiResponse> applyWithdraw(User user, Long walletId, Money request) {
+        Wallet wallet = walletRepository.findByIdAndUser(walletId, user).orElseThrow(UnauthorizedWalletAccessException::new);
+        request = new ConversionPlan()
+                .leg(ConversionLeg.DEBIT, request, wallet.getMoney().getCurrency())
+                .execute(currencyConverter)
+                .get(ConversionLeg.DEBIT);
+        Money debited = request;
+        walletLockManager.withLocks(List.of(walletId), List.of(), () -> {
+            walletLocks.lock(walletId);
+            walletLocks.reload(wallet);
+            walletShards.cover(wallet, debited.getAmountMinor());
+            wallet.withdraw(debited);
+            return null;
+        });
 
         ApiResponse response = ApiResponse.builder()
                 .message("Amount withdrawn")
                 .developerMessage("Amount withdrawn")
                 .status(HttpStatus.OK)
                 .statusCode(HttpStatus.OK.value())
-                .data(Map.of("wallet", new WalletResponse(wallet)))
+                .data(Map.of("wallet", walletResponse(wallet)))
                 .build();
 
         Money withdrawnMoney = new Money(request.getAmount(), user.getLocation().getCurrency());
@@ -129,7 +257,13 @@ public class WalletService {
         List<WalletResponse> walletResponses = new ArrayList<>();
 
         for (Wallet wallet: wallets) {
-            walletResponses.add(new WalletResponse(wallet));
+            if (ledgerEngine.isEnabled()) {
+                walletResponses.add(new WalletResponse(ledgerEngine.balance(wallet.getId())));
+            } else if (eventStore.isEnabled()) {
+                walletResponses.add(new WalletResponse(eventStore.balance(wallet)));
+            } else {
+                walletResponses.add(walletResponse(wallet));
+            }
         }
 
         ApiResponse response = ApiResponse.builder()
@@ -142,4 +276,10 @@ public class WalletService {
 
         return ResponseEntity.status(response.getStatus()).body(response);
     }
+
+    private WalletResponse walletResponse(Wallet wallet) {
+        return walletShards.isSharded(wallet.getId())
+                ? new WalletResponse(walletShards.balance(wallet))
+                : new WalletResponse(wallet);
+    }
 }
@@ -0,0 +1,221 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.ConverterTransport;
+
+import converter.BatchRequest;
+import converter.BatchResponse;
+import converter.CurrencyGrpc;
+import converter.Request;
+import converter.Response;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConversionBatcherTest {
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger streamCalls = new AtomicInteger();
+
+    private String name;
+    private Server server;
+    private ManagedChannel channel;
+    private ConversionBatcher batcher;
+
+    @BeforeEach
+    void setup() throws IOException {
+        name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new DoublingConverter())
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        batcher.shutdown();
+        channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void test_concurrentConversionsAreCoalescedIntoOneBatch() {
+        batcher = new ConversionBatcher(() -> channel, ConverterTransport.BATCH, 64, 200_000, 4, 5_000);
+
+        List<CompletableFuture<Float>> futures = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            futures.add(batcher.submit(request(i)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(2.0f * (i + 1), futures.get(i).join());
+        }
+        assertEquals(1, batchCalls.get());
+    }
+
+    @Test
+    void test_batchIsSentOnceMaxSizeIsReached() {
+        batcher = new ConversionBatcher(() -> channel, ConverterTransport.BATCH, 4, 200_000, 4, 5_000);
+
+        List<CompletableFuture<Float>> futures = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            futures.add(batcher.submit(request(i)));
+        }
+
+        futures.forEach(CompletableFuture::join);
+        assertEquals(2, batchCalls.get());
+    }
+
+    @Test
+    void test_streamTransportAnswersEachRequestById() {
+        batcher = new ConversionBatcher(() -> channel, ConverterTransport.STREAM, 64, 1_000, 4, 5_000);
+
+        List<CompletableFuture<Float>> futures = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            futures.add(batcher.submit(request(i)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(2.0f * (i + 1), futures.get(i).join());
+        }
+        assertEquals(1, streamCalls.get());
+    }
+
+    @Test
+    void test_pendingConversionsFailOnShutdown() {
+        batcher = new ConversionBatcher(() -> channel, ConverterTransport.BATCH, 64, 60_000_000, 4, 5_000);
+
+        CompletableFuture<Float> future = batcher.submit(request(1));
+        batcher.shutdown();
+
+        assertThrows(CompletionException.class, future::join);
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void test_hungBatchCallsGiveBackTheirPermit() {
+        batcher = new ConversionBatcher(() -> channel, ConverterTransport.BATCH, 1, 0, 1, 100);
+
+        CompletableFuture<Float> hung = batcher.submit(request(-1));
+
+        assertThrows(CompletionException.class, hung::join);
+        assertEquals(4.0f, batcher.submit(request(2)).join());
+        assertEquals(2, batchCalls.get());
+    }
+
+    @Test
+    void test_timedOutStreamConversionIsDroppedAndTheStreamReopened() throws InterruptedException {
+        batcher = new ConversionBatcher(() -> channel, ConverterTransport.STREAM, 64, 0, 4, 500);
+
+        CompletableFuture<Float> hung = batcher.submit(request(-1));
+
+        assertThrows(CompletionException.class, hung::join);
+        while (batcher.awaiting() != 0) {
+            Thread.sleep(1);
+        }
+        assertEquals(4.0f, batcher.submit(request(2)).join());
+        assertEquals(2, streamCalls.get());
+    }
+
+    @Test
+    void test_lateEndOfACancelledStreamLeavesItsReplacementAlone() throws InterruptedException {
+        Queue<Runnable> held = new ConcurrentLinkedQueue<>();
+        ManagedChannel heldChannel = InProcessChannelBuilder.forName(name).executor(held::add).build();
+        Iterator<ManagedChannel> channels = List.of(heldChannel, channel).iterator();
+        batcher = new ConversionBatcher(channels::next, ConverterTransport.STREAM, 64, 0, 4, 500);
+
+        CompletableFuture<Float> hung = batcher.submit(request(-1));
+        assertThrows(CompletionException.class, hung::join);
+        CompletableFuture<Float> inFlight = batcher.submit(request(-1));
+        while (batcher.awaiting() == 0) {
+            Thread.sleep(1);
+        }
+        for (Runnable callback = held.poll(); callback != null; callback = held.poll()) {
+            callback.run();
+        }
+
+        assertFalse(inFlight.isDone());
+        assertEquals(1, batcher.awaiting());
+        assertEquals(4.0f, batcher.submit(request(2)).join());
+        assertEquals(2, streamCalls.get());
+        heldChannel.shutdownNow();
+    }
+
+    private static Request request(float value) {
+        return Request.newBuilder()
+                .setFromCurrency("INR")
+                .setToCurrency("USD")
+                .setValue(value)
+                .build();
+    }
+
+    private static Response doubled(Request request) {
+        return Response.newBuilder()
+                .setCurrency(request.getToCurrency())
+                .setValue(request.getValue() * 2)
+                .setId(request.getId())
+                .build();
+    }
+
+    private class DoublingConverter extends CurrencyGrpc.CurrencyImplBase {
+        @Override
+        public void convertBatch(BatchRequest request, StreamObserver<BatchResponse> responseObserver) {
+            batchCalls.incrementAndGet();
+            if (request.getRequests(0).getValue() < 0) {
+                return;
+            }
+            BatchResponse.Builder response = BatchResponse.newBuilder();
+            for (Request conversion : request.getRequestsList()) {
+                response.addResponses(doubled(conversion));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<Request> convertStream(StreamObserver<Response> responseObserver) {
+            streamCalls.incrementAndGet();
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(Request request) {
+                    if (request.getValue() < 0) {
+                        return;
+                    }
+                    responseObserver.onNext(doubled(request));
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onCompleted();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.CircuitState;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConversionCircuitBreakerTest {
+    private AtomicLong now;
+    private ConversionCircuitBreaker breaker;
+
+    @BeforeEach
+    void setup() {
+        now = new AtomicLong();
+        breaker = new ConversionCircuitBreaker(3, 1000, now::get);
+    }
+
+    @Test
+    void test_breakerOpensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitState.CLOSED, breaker.state());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitState.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void test_successResetsFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void test_singleProbeIsAllowedAfterOpenPeriod() {
+        tripBreaker();
+        now.set(1000);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitState.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void test_successfulProbeClosesBreaker() {
+        tripBreaker();
+        now.set(1000);
+        breaker.tryAcquire();
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitState.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void test_failedProbeReopensBreaker() {
+        tripBreaker();
+        now.set(1000);
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitState.OPEN, breaker.state());
+        now.set(1500);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    private void tripBreaker() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+    }
+}
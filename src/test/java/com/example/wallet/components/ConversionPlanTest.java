@@ -0,0 +1,64 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.ConversionLeg;
+import com.example.wallet.enums.Currency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConversionPlanTest {
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void test_sameCurrencyLegsPassThroughWithoutConversion() {
+        Money amount = new Money(10, Currency.INR);
+        ConversionPlan plan = new ConversionPlan().leg(ConversionLeg.CREDIT, amount, Currency.INR);
+
+        Map<ConversionLeg, Money> converted = plan.execute(currencyConverter);
+
+        assertFalse(plan.needsConversion());
+        assertSame(amount, converted.get(ConversionLeg.CREDIT));
+        verify(currencyConverter, never()).convertAsync(any(Money.class), any(Currency.class));
+    }
+
+    @Test
+    void test_onlyCrossCurrencyLegsAreConverted() {
+        Money credit = new Money(10, Currency.USD);
+        Money debit = new Money(10, Currency.INR);
+        when(currencyConverter.convertAsync(credit, Currency.GBP))
+                .thenReturn(CompletableFuture.completedFuture(new Money(8, Currency.GBP)));
+
+        ConversionPlan plan = new ConversionPlan()
+                .leg(ConversionLeg.CREDIT, credit, Currency.GBP)
+                .leg(ConversionLeg.DEBIT, debit, Currency.INR);
+        Map<ConversionLeg, Money> converted = plan.execute(currencyConverter);
+
+        assertTrue(plan.needsConversion());
+        assertEquals(new Money(8, Currency.GBP), converted.get(ConversionLeg.CREDIT));
+        assertSame(debit, converted.get(ConversionLeg.DEBIT));
+        verify(currencyConverter, times(1)).convertAsync(any(Money.class), any(Currency.class));
+    }
+}
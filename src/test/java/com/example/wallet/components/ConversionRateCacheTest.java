@@ -0,0 +1,154 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConversionRateCacheTest {
+    private MeterRegistry registry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void test_rateIsLoadedOnceAndServedFromCache() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+
+        assertEquals(0.01, cache.rate(Currency.INR, Currency.GBP, this::load).join());
+        assertEquals(0.01, cache.rate(Currency.INR, Currency.GBP, this::load).join());
+        assertEquals(0.01, cache.rate(Currency.INR, Currency.GBP, this::load).join());
+
+        assertEquals(1, loads.get());
+        assertEquals(1, registry.counter("converter.rate.cache", "result", "miss").count());
+        assertEquals(2, registry.counter("converter.rate.cache", "result", "hit").count());
+    }
+
+    @Test
+    void test_eachCurrencyPairIsCachedSeparately() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+        cache.rate(Currency.GBP, Currency.INR, this::load);
+        cache.rate(Currency.INR, Currency.USD, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void test_sameCurrencyNeverLoadsRate() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+
+        assertEquals(1.0, cache.rate(Currency.USD, Currency.USD, this::load).join());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void test_expiredRateIsReloaded() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 0, 0);
+
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, registry.counter("converter.rate.cache", "result", "miss").count());
+    }
+
+    @Test
+    void test_invalidatedRateIsReloaded() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+        cache.invalidate();
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void test_concurrentMissesShareOneLoad() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+        CompletableFuture<Double> pending = new CompletableFuture<>();
+
+        CompletableFuture<Double> first = cache.rate(Currency.INR, Currency.GBP, (from, to) -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<Double> second = cache.rate(Currency.INR, Currency.GBP, this::load);
+        pending.complete(0.02);
+
+        assertEquals(0.02, first.join());
+        assertEquals(0.02, second.join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void test_failedLoadIsNotCached() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+
+        CompletableFuture<Double> failed = cache.rate(Currency.INR, Currency.GBP,
+                (from, to) -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0.01, cache.rate(Currency.INR, Currency.GBP, this::load).join());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void test_lastKnownRateOutlivesTtl() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 0, 0);
+
+        assertTrue(cache.lastKnown(Currency.INR, Currency.GBP).isEmpty());
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+
+        assertEquals(0.01, cache.lastKnown(Currency.INR, Currency.GBP).getAsDouble());
+    }
+
+    @Test
+    void test_newerRateVersionDropsCachedRates() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+
+        cache.observeVersion(1);
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+        cache.observeVersion(1);
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+        assertEquals(1, loads.get());
+
+        cache.observeVersion(2);
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.version());
+    }
+
+    @Test
+    void test_lastKnownRateOutlivesANewerRateVersion() {
+        ConversionRateCache cache = new ConversionRateCache(registry, 60000, 30000);
+        cache.rate(Currency.INR, Currency.GBP, this::load);
+
+        cache.observeVersion(1);
+        CompletableFuture<Double> failed = cache.rate(Currency.INR, Currency.GBP,
+                (from, to) -> CompletableFuture.failedFuture(new IllegalStateException("converter down")));
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0.01, cache.lastKnown(Currency.INR, Currency.GBP).getAsDouble());
+    }
+
+    private CompletableFuture<Double> load(Currency from, Currency to) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(0.01);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.BalancingPolicy;
+import com.example.wallet.enums.Currency;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class ConverterEndpointPoolTest {
+    @Mock
+    private Function<String, ManagedChannel> channelFactory;
+
+    @Mock
+    private ManagedChannel firstChannel;
+
+    @Mock
+    private ManagedChannel secondChannel;
+
+    private Server server;
+    private ConverterEndpointPool pool;
+
+    @BeforeEach
+    void setup() throws IOException {
+        openMocks(this);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new StubCurrencyService(Map.of(Currency.INR, 1.0), StubCurrencyService.Faults.NONE, null))
+                .build()
+                .start();
+        when(channelFactory.apply(any())).thenAnswer(invocation ->
+                InProcessChannelBuilder.forName(name).directExecutor().build());
+    }
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        pool.shutdown();
+        server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private ConverterEndpointPool pool(BalancingPolicy policy, List<String> targets) {
+        ConverterEndpointPool created = new ConverterEndpointPool(channelFactory, 1, 10, policy, 2, 1000);
+        created.update(targets);
+        return created;
+    }
+
+    @Test
+    void test_roundRobinSpreadsCallsOverEveryEndpoint() {
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first", "second", "third"));
+
+        Map<String, Integer> calls = new HashMap<>();
+        for (int i = 0; i < 9; i++) {
+            ConverterEndpointPool.Lease lease = pool.acquire();
+            calls.merge(lease.target(), 1, Integer::sum);
+            lease.release(true);
+        }
+
+        assertEquals(Map.of("first", 3, "second", 3, "third", 3), calls);
+    }
+
+    @Test
+    void test_leastOutstandingAvoidsBusyEndpoints() {
+        pool = pool(BalancingPolicy.LEAST_OUTSTANDING, List.of("first", "second"));
+
+        ConverterEndpointPool.Lease busy = pool.acquire();
+        ConverterEndpointPool.Lease next = pool.acquire();
+
+        assertNotEquals(busy.target(), next.target());
+        next.release(true);
+        assertEquals(next.target(), pool.acquire().target());
+    }
+
+    @Test
+    void test_failingEndpointIsDroppedUntilProbeSucceeds() {
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first", "second"));
+
+        while (pool.healthyTargets().size() == 2) {
+            ConverterEndpointPool.Lease lease = pool.acquire();
+            lease.release(!lease.target().equals("first"));
+        }
+        assertEquals(List.of("second"), pool.healthyTargets());
+        for (int i = 0; i < 4; i++) {
+            ConverterEndpointPool.Lease lease = pool.acquire();
+            assertEquals("second", lease.target());
+            lease.release(true);
+        }
+
+        pool.probe();
+
+        assertEquals(List.of("first", "second"), pool.healthyTargets());
+    }
+
+    @Test
+    void test_probeMarksUnreachableEndpointUnhealthy() {
+        when(channelFactory.apply("second")).thenAnswer(invocation ->
+                InProcessChannelBuilder.forName(InProcessServerBuilder.generateName()).directExecutor().build());
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first", "second"));
+
+        pool.probe();
+        assertEquals(List.of("first", "second"), pool.healthyTargets());
+        pool.probe();
+
+        assertEquals(List.of("first"), pool.healthyTargets());
+    }
+
+    @Test
+    void test_probeThatThrowsStillProbesTheOtherEndpoints() {
+        when(channelFactory.apply("first")).thenReturn(firstChannel);
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first", "second"));
+
+        pool.probe();
+        pool.probe();
+
+        assertEquals(List.of("second"), pool.healthyTargets());
+    }
+
+    @Test
+    void test_updateKeepsExistingChannelsAndClosesRemovedOnes() {
+        when(channelFactory.apply("first")).thenReturn(firstChannel);
+        when(channelFactory.apply("second")).thenReturn(secondChannel);
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first", "second"));
+
+        pool.update(List.of("first", "third"));
+
+        assertEquals(List.of("first", "third"), pool.targets());
+        verify(channelFactory, times(1)).apply("first");
+        verify(firstChannel, never()).shutdown();
+        verify(secondChannel).shutdown();
+    }
+
+    @Test
+    void test_saturatedPoolQueuesCallersInsteadOfBlockingThem() {
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first"));
+        List<ConverterEndpointPool.Lease> held = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            held.add(pool.acquire());
+        }
+
+        CompletableFuture<ConverterEndpointPool.Lease> abandoned = pool.acquireAsync();
+        CompletableFuture<ConverterEndpointPool.Lease> waiting = pool.acquireAsync();
+        assertFalse(waiting.isDone());
+        abandoned.completeExceptionally(new TimeoutException());
+
+        held.get(0).release(true);
+
+        assertTrue(waiting.isDone());
+        waiting.join().release(true);
+        assertTrue(pool.acquireAsync().isDone());
+    }
+
+    @Test
+    void test_saturatedEndpointHandsCallsToTheNextOne() {
+        pool = pool(BalancingPolicy.ROUND_ROBIN, List.of("first", "second"));
+        List<ConverterEndpointPool.Lease> held = new ArrayList<>();
+        while (held.size() < 10) {
+            ConverterEndpointPool.Lease lease = pool.acquire();
+            if (lease.target().equals("first")) {
+                held.add(lease);
+            } else {
+                lease.release(true);
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<ConverterEndpointPool.Lease> lease = pool.acquireAsync();
+            assertTrue(lease.isDone());
+            assertEquals("second", lease.join().target());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.ConverterProtocol;
+import com.example.wallet.enums.Currency;
+
+import converter.ConvertResponseV2;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CurrencyConversionClientTest {
+    @Test
+    void test_lookupsOfTheActiveProtocolAreRetried() {
+        assertTrue(CurrencyConversionClient.retriedMethods(ConverterProtocol.V1).contains("Convert"));
+        assertFalse(CurrencyConversionClient.retriedMethods(ConverterProtocol.V1).contains("ConvertV2"));
+        assertTrue(CurrencyConversionClient.retriedMethods(ConverterProtocol.V2).contains("ConvertV2"));
+        assertTrue(CurrencyConversionClient.retriedMethods(ConverterProtocol.V2).contains("ConvertBatch"));
+    }
+
+    @Test
+    void test_v2AmountIsTakenExactly() {
+        ConvertResponseV2 response = ConvertResponseV2.newBuilder()
+                .setCurrency("USD")
+                .setAmountMinor(154_320_986_265L)
+                .setScale(2)
+                .build();
+
+        assertEquals(Money.ofMinor(154_320_986_265L, Currency.USD), CurrencyConversionClient.converted(response, Currency.USD));
+    }
+
+    @Test
+    void test_v2AmountAtAFinerScaleIsRoundedHalfEven() {
+        ConvertResponseV2 response = ConvertResponseV2.newBuilder()
+                .setCurrency("USD")
+                .setAmountMinor(12_345)
+                .setScale(3)
+                .build();
+
+        assertEquals(Money.ofMinor(1_234, Currency.USD), CurrencyConversionClient.converted(response, Currency.USD));
+    }
+}
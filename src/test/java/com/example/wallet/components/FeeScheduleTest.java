@@ -0,0 +1,149 @@
+package com.example.wallet.components;
+
+import com.example.wallet.configs.FeeScheduleProperties;
+import com.example.wallet.dto.CurrencyRatesChangedEvent;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.CurrencyNotFoundException;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FeeScheduleTest {
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @Mock
+    private ExecutorService rebuilder;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(currencyConverter.rate(Currency.INR, Currency.INR)).thenReturn(1.0);
+        when(currencyConverter.rate(Currency.INR, Currency.USD)).thenReturn(0.0125);
+        when(currencyConverter.rate(Currency.INR, Currency.GBP)).thenReturn(0.01);
+    }
+
+    @Test
+    void test_defaultChargeIsPricedInSendersCurrencyWithoutConversion() {
+        FeeSchedule feeSchedule = new FeeSchedule(
+                new FeeScheduleProperties(Currency.INR, 10.0, List.of(), 0), currencyConverter);
+        feeSchedule.load();
+
+        assertEquals(new Money(0.13, Currency.USD), feeSchedule.charge(new Money(50, Currency.USD), Currency.GBP));
+        assertEquals(new Money(10.0, Currency.INR), feeSchedule.charge(new Money(50, Currency.INR), Currency.GBP));
+        verify(currencyConverter, never()).convert(any(Money.class), any(Currency.class));
+        verify(currencyConverter, times(1)).rate(Currency.INR, Currency.USD);
+    }
+
+    @Test
+    void test_rulesMatchByPairAndAmountBand() {
+        FeeSchedule feeSchedule = new FeeSchedule(new FeeScheduleProperties(Currency.INR, 10.0, List.of(
+                new FeeScheduleProperties.Rule(Currency.INR, Currency.USD, 0, 1000.0, 5.0),
+                new FeeScheduleProperties.Rule(Currency.INR, null, 1000, null, 20.0)
+        ), 0), currencyConverter);
+        feeSchedule.load();
+
+        assertEquals(new Money(5.0, Currency.INR), feeSchedule.charge(new Money(999.99, Currency.INR), Currency.USD));
+        assertEquals(new Money(20.0, Currency.INR), feeSchedule.charge(new Money(1000, Currency.INR), Currency.USD));
+        assertEquals(new Money(10.0, Currency.INR), feeSchedule.charge(new Money(500, Currency.INR), Currency.GBP));
+    }
+
+    @Test
+    void test_bandsAreComparedInSendersCurrency() {
+        FeeSchedule feeSchedule = new FeeSchedule(new FeeScheduleProperties(Currency.INR, 10.0, List.of(
+                new FeeScheduleProperties.Rule(null, null, 0, 8000.0, 100.0)
+        ), 0), currencyConverter);
+        feeSchedule.load();
+
+        assertEquals(new Money(1.0, Currency.GBP), feeSchedule.charge(new Money(79.99, Currency.GBP), Currency.USD));
+        assertEquals(new Money(0.1, Currency.GBP), feeSchedule.charge(new Money(80, Currency.GBP), Currency.USD));
+    }
+
+    @Test
+    void test_ratesChangeRepricesTheTable() {
+        FeeSchedule feeSchedule = new FeeSchedule(
+                new FeeScheduleProperties(Currency.INR, 10.0, List.of(), 0), currencyConverter);
+        feeSchedule.load();
+        when(currencyConverter.rate(Currency.INR, Currency.GBP)).thenReturn(0.02);
+
+        feeSchedule.onRatesChanged(new CurrencyRatesChangedEvent(List.of(Currency.GBP)));
+
+        assertEquals(new Money(0.2, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+    }
+
+    @Test
+    void test_newRatesRevisionRepricesTheTable() {
+        FeeSchedule feeSchedule = new FeeSchedule(new FeeScheduleProperties(Currency.INR, 10.0, List.of(), 0),
+                currencyConverter, System::currentTimeMillis, MoreExecutors.newDirectExecutorService());
+        feeSchedule.load();
+        when(currencyConverter.rate(Currency.INR, Currency.GBP)).thenReturn(0.02);
+        assertEquals(new Money(0.1, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+
+        when(currencyConverter.ratesRevision()).thenReturn(1L);
+
+        assertEquals(new Money(0.2, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+    }
+
+    @Test
+    void test_tableOlderThanMaxAgeIsRepriced() {
+        AtomicLong clock = new AtomicLong(1_000);
+        FeeSchedule feeSchedule = new FeeSchedule(new FeeScheduleProperties(Currency.INR, 10.0, List.of(), 60_000),
+                currencyConverter, clock::get, MoreExecutors.newDirectExecutorService());
+        feeSchedule.load();
+        when(currencyConverter.rate(Currency.INR, Currency.GBP)).thenReturn(0.02);
+
+        clock.addAndGet(59_999);
+        assertEquals(new Money(0.1, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+
+        clock.addAndGet(1);
+        assertEquals(new Money(0.2, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+    }
+
+    @Test
+    void test_staleTableIsServedWhileOneRebuildRuns() {
+        FeeSchedule feeSchedule = new FeeSchedule(new FeeScheduleProperties(Currency.INR, 10.0, List.of(), 0),
+                currencyConverter, System::currentTimeMillis, rebuilder);
+        feeSchedule.load();
+        when(currencyConverter.rate(Currency.INR, Currency.GBP)).thenReturn(0.02);
+        when(currencyConverter.ratesRevision()).thenReturn(1L);
+
+        assertEquals(new Money(0.1, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+        assertEquals(new Money(0.1, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+        ArgumentCaptor<Runnable> rebuild = ArgumentCaptor.forClass(Runnable.class);
+        verify(rebuilder, times(1)).execute(rebuild.capture());
+
+        rebuild.getValue().run();
+
+        assertEquals(new Money(0.2, Currency.GBP), feeSchedule.charge(new Money(50, Currency.GBP), Currency.INR));
+    }
+
+    @Test
+    void test_currencyWithoutRateAtLoadIsPricedOnDemand() {
+        when(currencyConverter.rate(Currency.INR, Currency.USD)).thenThrow(new CurrencyNotFoundException());
+        FeeSchedule feeSchedule = new FeeSchedule(
+                new FeeScheduleProperties(Currency.INR, 10.0, List.of(), 0), currencyConverter);
+        feeSchedule.load();
+        doReturn(0.0125).when(currencyConverter).rate(Currency.INR, Currency.USD);
+
+        assertEquals(new Money(0.13, Currency.USD), feeSchedule.charge(new Money(50, Currency.USD), Currency.INR));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.wallet.components;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class HotWalletDetectorTest {
+    @Mock
+    private WalletContention contention;
+
+    @Mock
+    private WalletShards walletShards;
+
+    private SimpleMeterRegistry registry;
+    private HotWalletDetector detector;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        registry = new SimpleMeterRegistry();
+        detector = new HotWalletDetector(contention, walletShards, registry, 1_000, 10);
+    }
+
+    @Test
+    void test_walletContendedPastTheThresholdIsPromoted() {
+        when(contention.drain()).thenReturn(Map.of(7L, 10L, 8L, 3L));
+
+        detector.detect();
+
+        verify(walletShards, times(1)).promote(7L);
+        verify(walletShards, never()).promote(8L);
+    }
+
+    @Test
+    void test_shardedWalletIsNotPromotedAgain() {
+        when(contention.drain()).thenReturn(Map.of(7L, 20L));
+        when(walletShards.isSharded(7L)).thenReturn(true);
+
+        detector.detect();
+
+        verify(walletShards, never()).promote(any());
+    }
+
+    @Test
+    void test_failedRunIsCounted() {
+        doThrow(new IllegalStateException("database down")).when(walletShards).refresh();
+
+        detector.detect();
+
+        verify(contention, never()).drain();
+        assertEquals(1.0, registry.counter("wallet.sharding.detection.failures").count());
+    }
+
+    @Test
+    void test_nextRunGoesOnAfterAFailedPromotion() {
+        when(contention.drain()).thenReturn(Map.of(7L, 10L)).thenReturn(Map.of(8L, 10L));
+        doThrow(new IllegalStateException("database down")).when(walletShards).promote(7L);
+
+        detector.detect();
+        detector.detect();
+
+        verify(walletShards, times(1)).promote(8L);
+        assertEquals(1.0, registry.counter("wallet.sharding.detection.failures").count());
+    }
+}
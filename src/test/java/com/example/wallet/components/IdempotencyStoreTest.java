@@ -0,0 +1,252 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.exceptions.IdempotencyKeyReusedException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.models.IdempotencyRecord;
+import com.example.wallet.repository.IdempotencyRecordRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyStoreTest {
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        Authentication authentication = mock(Authentication.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        SecurityContextHolder.setContext(securityContext);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+
+        idempotencyStore = new IdempotencyStore(repository, mapper, 60_000, 100, 30_000);
+    }
+
+    private void committed(Runnable change) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            change.run();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static ResponseEntity<ApiResponse> ok(String message) {
+        return ResponseEntity.ok(ApiResponse.builder()
+                .message(message)
+                .status(HttpStatus.OK)
+                .statusCode(HttpStatus.OK.value())
+                .build());
+    }
+
+    @Test
+    void test_requestsWithoutKeyAlwaysRun() {
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyStore.execute(null, List.of("deposit", 1L), () -> ok("run " + runs.incrementAndGet()));
+        idempotencyStore.execute(null, List.of("deposit", 1L), () -> ok("run " + runs.incrementAndGet()));
+
+        assertEquals(2, runs.get());
+        verify(repository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void test_duplicateIsAnsweredWithTheFirstResponse() {
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<ApiResponse> first = idempotencyStore.execute("key", List.of("deposit", 1L),
+                () -> ok("run " + runs.incrementAndGet()));
+        ResponseEntity<ApiResponse> second = idempotencyStore.execute("key", List.of("deposit", 1L),
+                () -> ok("run " + runs.incrementAndGet()));
+
+        assertEquals(1, runs.get());
+        assertSame(first, second);
+        verify(repository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void test_keyReusedForAnotherRequest_throwsException() {
+        idempotencyStore.execute("key", List.of("deposit", 1L), () -> ok("deposit"));
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute("key", List.of("withdraw", 1L), () -> ok("withdraw")));
+    }
+
+    @Test
+    void test_failedExecutionIsNotRemembered() {
+        assertThrows(OverWithdrawalException.class, () -> idempotencyStore.execute("key", List.of("withdraw", 1L), () -> {
+            throw new OverWithdrawalException();
+        }));
+
+        ResponseEntity<ApiResponse> retried = idempotencyStore.execute("key", List.of("withdraw", 1L), () -> ok("withdrawn"));
+
+        assertEquals("withdrawn", retried.getBody().getMessage());
+    }
+
+    @Test
+    void test_concurrentDuplicateWaitsForTheFirstExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        Future<ResponseEntity<ApiResponse>> first = executor.submit(() -> {
+            SecurityContextHolder.setContext(securityContext);
+            return idempotencyStore.execute("key", List.of("transfer", 1L), () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ok("transferred");
+            });
+        });
+        started.await();
+        Future<ResponseEntity<ApiResponse>> duplicate = executor.submit(() -> {
+            SecurityContextHolder.setContext(securityContext);
+            return idempotencyStore.execute("key", List.of("transfer", 1L), () -> ok("run " + runs.incrementAndGet()));
+        });
+        finish.countDown();
+
+        assertSame(first.get(), duplicate.get());
+        assertEquals(1, runs.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void test_persistedResponseIsServedWithoutRunning() throws Exception {
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        idempotencyStore.execute("key", List.of("deposit", 1L), () -> ResponseEntity.ok(ApiResponse.builder()
+                .message("deposited")
+                .data(Map.of("amount", 10.0))
+                .build()));
+        verify(repository).save(saved.capture());
+
+        IdempotencyStore restarted = new IdempotencyStore(repository, mapper, 60_000, 100, 30_000);
+        when(repository.findById("user:key")).thenReturn(Optional.of(saved.getValue()));
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<ApiResponse> response = restarted.execute("key", List.of("deposit", 1L),
+                () -> ok("run " + runs.incrementAndGet()));
+
+        assertEquals(0, runs.get());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("deposited", response.getBody().getMessage());
+        assertEquals(Map.of("amount", 10.0), response.getBody().getData());
+    }
+
+    @Test
+    void test_keyClaimedWithTheChangeIsAnsweredInPlace() {
+        ResponseEntity<ApiResponse> response = idempotencyStore.execute("key", List.of("deposit", 1L), () -> {
+            committed(idempotencyStore::claim);
+            return ok("deposited");
+        });
+
+        assertEquals("deposited", response.getBody().getMessage());
+        verify(repository).claim(eq("user:key"), anyString(), anyLong(), anyLong());
+        verify(repository).answer(eq("user:key"), eq(200), anyString());
+        verify(repository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void test_keyClaimedOnAnotherNodeIsAnsweredWithItsResponse() throws Exception {
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id("user:key")
+                .fingerprint(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                        .digest(mapper.writeValueAsBytes(List.of("transfer", 1L)))))
+                .statusCode(200)
+                .response(mapper.writeValueAsString(ok("transferred").getBody()))
+                .expiresAt(System.currentTimeMillis() + 60_000)
+                .build();
+        when(repository.findById("user:key")).thenReturn(Optional.empty(), Optional.of(record));
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(repository).claim(anyString(), anyString(), anyLong(), anyLong());
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<ApiResponse> response = idempotencyStore.execute("key", List.of("transfer", 1L), () -> {
+            committed(idempotencyStore::claim);
+            return ok("run " + runs.incrementAndGet());
+        });
+
+        assertEquals(0, runs.get());
+        assertEquals("transferred", response.getBody().getMessage());
+        verify(repository, never()).answer(anyString(), anyInt(), anyString());
+    }
+
+    @Test
+    void test_claimLeftUnansweredPastTheTimeoutIsAnsweredAsProcessed() throws Exception {
+        long now = System.currentTimeMillis();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id("user:key")
+                .fingerprint(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                        .digest(mapper.writeValueAsBytes(List.of("transfer", 1L)))))
+                .statusCode(0)
+                .expiresAt(now + 60_000)
+                .claimedAt(now - 30_000)
+                .build();
+        when(repository.findById("user:key")).thenReturn(Optional.of(record));
+        when(repository.answer(anyString(), anyInt(), anyString())).thenReturn(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<ApiResponse> response = idempotencyStore.execute("key", List.of("transfer", 1L),
+                () -> ok("run " + runs.incrementAndGet()));
+
+        assertEquals(0, runs.get());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Request already processed", response.getBody().getMessage());
+        verify(repository).answer(eq("user:key"), eq(200), anyString());
+    }
+}
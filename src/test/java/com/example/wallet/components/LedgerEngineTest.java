@@ -0,0 +1,152 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.LedgerRecord;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.LedgerJournalFullException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.exceptions.UnauthorizedWalletAccessException;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class LedgerEngineTest {
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private LedgerProjector projector;
+
+    @BeforeEach
+    void setup() throws Exception {
+        openMocks(this);
+        User sender = User.builder().id(10L).username("sender").build();
+        User receiver = User.builder().id(20L).username("receiver").build();
+        when(walletRepository.findAllWithUsers()).thenReturn(List.of(
+                Wallet.builder().id(1L).money(new Money(100, Currency.INR)).user(sender).build(),
+                Wallet.builder().id(2L).money(new Money(10, Currency.USD)).user(receiver).build()
+        ));
+        when(projector.flush(anyLong())).thenReturn(true);
+    }
+
+    private LedgerEngine engine() {
+        LedgerEngine engine = new LedgerEngine(walletRepository, projector, true, 4,
+                directory.resolve("ledger.journal").toString(), 100 * LedgerJournal.RECORD_BYTES, 60_000,
+                directory.resolve("ledger.snapshot").toString(), 60_000);
+        engine.recover();
+        return engine;
+    }
+
+    @Test
+    void test_transferMovesBalancesAndIsHandedToTheProjector() {
+        LedgerEngine engine = engine();
+
+        LedgerRecord record = engine.transfer("sender", 1L, "receiver", 2L, 4_000, 50, 1_000);
+
+        assertEquals(new Money(50, Currency.INR), engine.balance(1L));
+        assertEquals(new Money(10.5, Currency.USD), engine.balance(2L));
+        assertEquals(10L, record.debitOwnerId());
+        assertEquals(20L, record.creditOwnerId());
+        verify(projector, times(1)).submit(record);
+    }
+
+    @Test
+    void test_rejectedChangesAreNotJournaled() {
+        LedgerEngine engine = engine();
+
+        assertThrows(OverWithdrawalException.class,
+                () -> engine.transfer("sender", 1L, "receiver", 2L, 10_000, 100, 1));
+        assertThrows(UnauthorizedWalletAccessException.class,
+                () -> engine.transfer("receiver", 1L, "receiver", 2L, 100, 100, 0));
+
+        assertEquals(new Money(100, Currency.INR), engine.balance(1L));
+        verify(projector, never()).submit(any());
+    }
+
+    @Test
+    void test_balancesAreRebuiltFromSnapshotAndJournalAfterACrash() {
+        LedgerEngine crashed = engine();
+        crashed.transfer("sender", 1L, "receiver", 2L, 1_000, 12, 0);
+        crashed.snapshot();
+        crashed.withdraw("receiver", 2L, 200);
+        crashed.deposit("sender", 1L, 500);
+
+        LedgerEngine recovered = engine();
+
+        assertEquals(new Money(95, Currency.INR), recovered.balance(1L));
+        assertEquals(new Money(10.12 - 2, Currency.USD), recovered.balance(2L));
+        ArgumentCaptor<List<LedgerRecord>> projected = ArgumentCaptor.forClass(List.class);
+        verify(projector, atLeastOnce()).project(projected.capture());
+        assertEquals(2, projected.getValue().size());
+    }
+
+    @Test
+    void test_cleanShutdownLeavesTheDatabaseAuthoritative() {
+        LedgerEngine engine = engine();
+        engine.deposit("sender", 1L, 500);
+
+        engine.shutdown();
+
+        assertFalse(Files.exists(directory.resolve("ledger.snapshot")));
+        verify(projector, times(1)).project(anyList());
+    }
+
+    @Test
+    void test_changesGoOnWhileASnapshotWaitsForTheDatabase() throws Exception {
+        LedgerEngine crashed = engine();
+        crashed.deposit("sender", 1L, 500);
+        when(projector.flush(anyLong())).then(invocation -> {
+            CompletableFuture.runAsync(() -> crashed.deposit("sender", 1L, 700)).get(1, TimeUnit.SECONDS);
+            return true;
+        });
+
+        crashed.snapshot();
+
+        doReturn(true).when(projector).flush(anyLong());
+        LedgerEngine recovered = engine();
+        assertEquals(new Money(112, Currency.INR), recovered.balance(1L));
+    }
+
+    @Test
+    void test_fullJournalTurnsChangesAway() throws Exception {
+        when(projector.flush(anyLong())).thenReturn(false);
+        LedgerEngine engine = engine();
+        for (int i = 0; i < 100; i++) {
+            engine.deposit("sender", 1L, 1);
+        }
+
+        assertThrows(LedgerJournalFullException.class, () -> engine.deposit("sender", 1L, 1));
+        assertEquals(new Money(101, Currency.INR), engine.balance(1L));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.Role;
+import com.example.wallet.enums.TransactionType;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.UserRepository;
+import com.example.wallet.repository.WalletRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+public class LedgerEventStoreTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    private LedgerEventStore eventStore;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setup() {
+        eventStore = new LedgerEventStore(jdbcTemplate, true, 2);
+        User user = userRepository.save(User.builder()
+                .name("user").username("user").password("password").location(Location.INDIA).role(Role.USER).build());
+        wallet = walletRepository.saveAndFlush(new Wallet(new Money(100, Currency.INR), user));
+    }
+
+    @Test
+    void test_balanceIsTheOpeningBalancePlusEvents() {
+        eventStore.append(wallet, eventStore.head(wallet), 5_000, TransactionType.DEPOSIT, 1L);
+        eventStore.append(wallet, eventStore.head(wallet), -2_000, TransactionType.WITHDRAW, 2L);
+        eventStore.append(wallet, eventStore.head(wallet), 100, TransactionType.DEPOSIT, 3L);
+
+        assertEquals(new LedgerEventStore.Head(3, 13_100), eventStore.head(wallet));
+        assertEquals(new Money(131, Currency.INR), eventStore.balance(wallet));
+        assertEquals(10_000L, walletRepository.findById(wallet.getId()).orElseThrow().getMoney().getAmountMinor());
+    }
+
+    @Test
+    void test_snapshotIsWrittenEveryConfiguredNumberOfEvents() {
+        for (int i = 0; i < 5; i++) {
+            eventStore.append(wallet, eventStore.head(wallet), 100, TransactionType.DEPOSIT, i);
+        }
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM balance_snapshots WHERE wallet_id = ?", Integer.class, wallet.getId()));
+        jdbcTemplate.update("DELETE FROM ledger_events WHERE wallet_id = ? AND seq <= 4", wallet.getId());
+        assertEquals(new LedgerEventStore.Head(5, 10_500), eventStore.head(wallet));
+    }
+
+    @Test
+    void test_appendOnAStaleHeadConflicts() {
+        LedgerEventStore.Head head = eventStore.head(wallet);
+        eventStore.append(wallet, head, 100, TransactionType.DEPOSIT, 1L);
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> eventStore.append(wallet, head, 200, TransactionType.DEPOSIT, 2L));
+        assertThrows(OverWithdrawalException.class,
+                () -> eventStore.append(wallet, eventStore.head(wallet), -20_000, TransactionType.WITHDRAW, 3L));
+        assertEquals(new LedgerEventStore.Head(1, 10_100), eventStore.head(wallet));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.LedgerRecord;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LedgerRecordType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LedgerJournalTest {
+    @TempDir
+    private Path directory;
+
+    private static LedgerRecord transfer(long debitMinor) {
+        return new LedgerRecord(0, LedgerRecordType.TRANSFER, 1000L, 1, 2, debitMinor, debitMinor * 2, 5,
+                Currency.INR, Currency.USD, 10, 20);
+    }
+
+    @Test
+    void test_appendedRecordsAreReadBackAfterReopening() {
+        Path path = directory.resolve("ledger.journal");
+        try (LedgerJournal journal = new LedgerJournal(path, 10 * LedgerJournal.RECORD_BYTES)) {
+            assertEquals(1, journal.append(transfer(100)).seq());
+            assertEquals(2, journal.append(transfer(200)).seq());
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(path, 10 * LedgerJournal.RECORD_BYTES)) {
+            List<LedgerRecord> records = journal.records();
+
+            assertEquals(List.of(transfer(100).withSeq(1), transfer(200).withSeq(2)), records);
+            assertEquals(3, journal.append(transfer(300)).seq());
+        }
+    }
+
+    @Test
+    void test_tornRecordEndsTheJournal() throws Exception {
+        Path path = directory.resolve("ledger.journal");
+        try (LedgerJournal journal = new LedgerJournal(path, 10 * LedgerJournal.RECORD_BYTES)) {
+            journal.append(transfer(100));
+            journal.append(transfer(200));
+            journal.append(transfer(300));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(LedgerJournal.RECORD_BYTES + 40);
+            file.writeLong(999);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(path, 10 * LedgerJournal.RECORD_BYTES)) {
+            assertEquals(List.of(transfer(100).withSeq(1)), journal.records());
+        }
+    }
+
+    @Test
+    void test_resetEmptiesTheJournalAndKeepsTheSequence() {
+        Path path = directory.resolve("ledger.journal");
+        try (LedgerJournal journal = new LedgerJournal(path, 2 * LedgerJournal.RECORD_BYTES)) {
+            journal.append(transfer(100));
+            journal.append(transfer(200));
+            assertThrows(IllegalStateException.class, () -> journal.append(transfer(300)));
+
+            journal.reset();
+
+            assertEquals(List.of(), journal.records());
+            assertEquals(3, journal.append(transfer(300)).seq());
+        }
+    }
+
+    @Test
+    void test_discardingKeepsTheRecordsAfterTheSnapshot() {
+        Path path = directory.resolve("ledger.journal");
+        try (LedgerJournal journal = new LedgerJournal(path, 3 * LedgerJournal.RECORD_BYTES)) {
+            journal.append(transfer(100));
+            journal.append(transfer(200));
+            journal.append(transfer(300));
+
+            journal.discardThrough(2);
+
+            assertEquals(List.of(transfer(300).withSeq(3)), journal.records());
+            assertEquals(2, journal.remaining());
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(path, 3 * LedgerJournal.RECORD_BYTES)) {
+            assertEquals(List.of(transfer(300).withSeq(3)), journal.records());
+            assertEquals(4, journal.append(transfer(400)).seq());
+        }
+    }
+}
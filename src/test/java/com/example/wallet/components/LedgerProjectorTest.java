@@ -0,0 +1,74 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.LedgerRecord;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LedgerRecordType;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.Role;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.PassbookEntryRepository;
+import com.example.wallet.repository.TransactionRepository;
+import com.example.wallet.repository.UserRepository;
+import com.example.wallet.repository.WalletRepository;
+
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import({LedgerProjector.class, TransferBatchWriter.class})
+public class LedgerProjectorTest {
+    @Autowired
+    private LedgerProjector projector;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PassbookEntryRepository passbookEntryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void test_recordsAreProjectedAsDeltasEntriesAndTransactions() {
+        User sender = userRepository.save(User.builder()
+                .name("sender").username("sender").password("password").location(Location.INDIA).role(Role.USER).build());
+        User receiver = userRepository.save(User.builder()
+                .name("receiver").username("receiver").password("password").location(Location.INDIA).role(Role.USER).build());
+        Wallet sendersWallet = walletRepository.save(new Wallet(new Money(100, Currency.INR), sender));
+        Wallet receiversWallet = walletRepository.save(new Wallet(new Money(Currency.INR), receiver));
+        entityManager.flush();
+
+        projector.project(List.of(
+                new LedgerRecord(1, LedgerRecordType.TRANSFER, 1000L, sendersWallet.getId(), receiversWallet.getId(),
+                        4_000, 4_000, 100, Currency.INR, Currency.INR, sender.getId(), receiver.getId()),
+                new LedgerRecord(2, LedgerRecordType.DEPOSIT, 1001L, 0, receiversWallet.getId(),
+                        0, 500, 0, null, Currency.INR, 0, receiver.getId())
+        ));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(new Money(59, Currency.INR), walletRepository.findById(sendersWallet.getId()).orElseThrow().getMoney());
+        assertEquals(new Money(45, Currency.INR), walletRepository.findById(receiversWallet.getId()).orElseThrow().getMoney());
+        assertEquals(3, passbookEntryRepository.count());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(2, projector.watermark());
+    }
+}
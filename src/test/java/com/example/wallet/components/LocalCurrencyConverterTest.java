@@ -0,0 +1,87 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.CurrencyRatesChangedEvent;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.CurrencyNotFoundException;
+import com.example.wallet.models.CurrencyValue;
+import com.example.wallet.repository.CurrencyRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class LocalCurrencyConverterTest {
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private CurrencyConversionClient conversionClient;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        when(currencyRepository.findAll()).thenReturn(List.of(
+                new CurrencyValue(Currency.INR, 1),
+                new CurrencyValue(Currency.GBP, 100)
+        ));
+    }
+
+    @Test
+    void test_convertsFromStoredRates() {
+        LocalCurrencyConverter converter = new LocalCurrencyConverter(currencyRepository, conversionClient, true);
+        converter.load();
+
+        assertEquals(new Money(100, Currency.GBP), converter.convert(new Money(10000, Currency.INR), Currency.GBP));
+        assertEquals(new Money(250, Currency.INR), converter.convert(new Money(2.5, Currency.GBP), Currency.INR));
+        verify(conversionClient, never()).convert(any(Money.class), any(Currency.class));
+    }
+
+    @Test
+    void test_unknownPairFallsBackToRemoteConverter() {
+        LocalCurrencyConverter converter = new LocalCurrencyConverter(currencyRepository, conversionClient, true);
+        converter.load();
+        Money money = new Money(10, Currency.USD);
+
+        when(conversionClient.convert(money, Currency.INR)).thenReturn(new Money(830, Currency.INR));
+
+        assertEquals(new Money(830, Currency.INR), converter.convert(money, Currency.INR));
+        verify(conversionClient, times(1)).convert(money, Currency.INR);
+    }
+
+    @Test
+    void test_unknownPairWithoutFallback_throwsException() {
+        LocalCurrencyConverter converter = new LocalCurrencyConverter(currencyRepository, conversionClient, false);
+        converter.load();
+
+        assertThrows(CurrencyNotFoundException.class, () -> converter.convert(new Money(10, Currency.USD), Currency.INR));
+    }
+
+    @Test
+    void test_snapshotIsSwappedWhenRatesChange() {
+        LocalCurrencyConverter converter = new LocalCurrencyConverter(currencyRepository, conversionClient, false);
+        converter.load();
+        RateMatrix before = converter.snapshot();
+
+        when(currencyRepository.findAll()).thenReturn(List.of(
+                new CurrencyValue(Currency.INR, 1),
+                new CurrencyValue(Currency.GBP, 50)
+        ));
+        converter.onRatesChanged(new CurrencyRatesChangedEvent(List.of(Currency.GBP)));
+
+        assertEquals(0.01, before.rate(Currency.INR, Currency.GBP));
+        assertEquals(0.02, converter.rate(Currency.INR, Currency.GBP));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.wallet.components;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MinorUnitsMigrationTest {
+    private static final String COLUMN_QUERY =
+            "SELECT COUNT(*) FROM information_schema.columns WHERE LOWER(table_name) = ? AND LOWER(column_name) = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private MinorUnitsMigration migration;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void test_legacyAmountsAreCopiedAndColumnDropped() {
+        when(jdbcTemplate.queryForObject(COLUMN_QUERY, Integer.class, "wallets", "amount")).thenReturn(1);
+        when(jdbcTemplate.queryForObject(COLUMN_QUERY, Integer.class, "entry", "amount")).thenReturn(0);
+
+        migration.afterPropertiesSet();
+
+        verify(jdbcTemplate, times(1)).update(
+                "UPDATE wallets SET amount_minor = ROUND(amount * ?) WHERE currency = ?", 100.0, "INR"
+        );
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE wallets DROP COLUMN amount");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE entry DROP COLUMN amount");
+    }
+
+    @Test
+    void test_nothingRunsOnceMigrated() {
+        when(jdbcTemplate.queryForObject(eq(COLUMN_QUERY), eq(Integer.class), anyString(), anyString())).thenReturn(0);
+
+        migration.afterPropertiesSet();
+
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+}
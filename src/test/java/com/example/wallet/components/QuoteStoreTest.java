@@ -0,0 +1,89 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.enums.Currency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QuoteStoreTest {
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private Quote quote() {
+        return Quote.builder()
+                .username("user")
+                .money(new Money(100, Currency.USD))
+                .converted(new Money(8300, Currency.INR))
+                .rate(83)
+                .build();
+    }
+
+    @Test
+    void test_issuedQuoteIsFoundUntilItExpires() {
+        QuoteStore store = new QuoteStore(100, 10, now::get);
+        Quote quote = store.issue(quote());
+
+        assertNotNull(quote.getQuoteId());
+        assertEquals(1_100L, quote.getExpiresAt());
+        assertEquals(quote, store.find(quote.getQuoteId()).orElseThrow());
+
+        now.set(1_100);
+
+        assertTrue(store.find(quote.getQuoteId()).isEmpty());
+    }
+
+    @Test
+    void test_expiredQuotesAreEvictedOnIssue() {
+        QuoteStore store = new QuoteStore(100, 10, now::get);
+        store.issue(quote());
+        store.issue(quote());
+
+        now.set(1_200);
+        store.issue(quote());
+
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void test_oldestQuoteIsDroppedWhenFull() {
+        QuoteStore store = new QuoteStore(100, 2, now::get);
+        Quote first = store.issue(quote());
+        Quote second = store.issue(quote());
+        Quote third = store.issue(quote());
+
+        assertEquals(2, store.size());
+        assertTrue(store.find(first.getQuoteId()).isEmpty());
+        assertTrue(store.find(second.getQuoteId()).isPresent());
+        assertTrue(store.find(third.getQuoteId()).isPresent());
+    }
+
+    @Test
+    void test_claimedQuoteCannotBeClaimedAgain() {
+        QuoteStore store = new QuoteStore(100, 10, now::get);
+        Quote quote = store.issue(quote());
+
+        assertEquals(quote, store.claim(quote.getQuoteId()).orElseThrow());
+
+        assertTrue(store.claim(quote.getQuoteId()).isEmpty());
+        assertTrue(store.find(quote.getQuoteId()).isEmpty());
+    }
+
+    @Test
+    void test_restoredQuoteCanBeClaimedUntilItExpires() {
+        QuoteStore store = new QuoteStore(100, 10, now::get);
+        Quote quote = store.issue(quote());
+
+        store.restore(store.claim(quote.getQuoteId()).orElseThrow());
+        Quote claimed = store.claim(quote.getQuoteId()).orElseThrow();
+        now.set(1_100);
+        store.restore(claimed);
+
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.ConverterUnavailableException;
+
+import converter.CurrencyGrpc;
+import converter.CurrencyRate;
+import converter.RateSubscription;
+import converter.RateUpdate;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateSubscriberTest {
+    private final List<StreamObserver<RateUpdate>> subscribers = new CopyOnWriteArrayList<>();
+
+    private Server server;
+    private ManagedChannel channel;
+    private ScheduledExecutorService scheduler;
+    private RateSubscriber subscriber;
+
+    @BeforeEach
+    void setup() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new CurrencyGrpc.CurrencyImplBase() {
+                    @Override
+                    public void subscribeRates(RateSubscription request, StreamObserver<RateUpdate> responseObserver) {
+                        subscribers.add(responseObserver);
+                        responseObserver.onNext(update(Currency.INR, 1.0, Currency.USD, 80.0));
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        subscriber = new RateSubscriber(() -> channel, scheduler, 10, 100);
+    }
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        subscriber.shutdown();
+        scheduler.shutdownNow();
+        channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void test_initialUpdatePopulatesRates() {
+        assertFalse(subscriber.snapshot().supports(Currency.USD, Currency.INR));
+        assertEquals(Long.MAX_VALUE, subscriber.age());
+
+        subscriber.start();
+
+        assertEquals(80.0, subscriber.snapshot().rate(Currency.USD, Currency.INR));
+        assertTrue(subscriber.age() < 1000);
+    }
+
+    @Test
+    void test_laterUpdatesAreMergedIntoTheTable() {
+        subscriber.start();
+
+        subscribers.get(0).onNext(update(Currency.GBP, 100.0, Currency.USD, 82.0));
+
+        assertEquals(82.0, subscriber.snapshot().rate(Currency.USD, Currency.INR));
+        assertEquals(100.0, subscriber.snapshot().rate(Currency.GBP, Currency.INR));
+    }
+
+    @Test
+    void test_droppedStreamIsResubscribed() throws InterruptedException {
+        subscriber.start();
+
+        subscribers.get(0).onError(Status.UNAVAILABLE.asRuntimeException());
+
+        awaitTrue(() -> subscribers.size() == 2);
+        assertEquals(80.0, subscriber.snapshot().rate(Currency.USD, Currency.INR));
+    }
+
+    @Test
+    void test_subscriptionWithoutAnEndpointIsRetried() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        subscriber = new RateSubscriber(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConverterUnavailableException();
+            }
+            return channel;
+        }, scheduler, 10, 100);
+
+        subscriber.start();
+
+        awaitTrue(() -> subscribers.size() == 1);
+        assertEquals(80.0, subscriber.snapshot().rate(Currency.USD, Currency.INR));
+    }
+
+    @Test
+    void test_noResubscribeAfterShutdown() throws InterruptedException {
+        subscriber.start();
+        subscriber.shutdown();
+
+        subscribers.get(0).onCompleted();
+        Thread.sleep(200);
+
+        assertEquals(1, subscribers.size());
+    }
+
+    private static RateUpdate update(Currency first, double firstValue, Currency second, double secondValue) {
+        return RateUpdate.newBuilder()
+                .addRates(CurrencyRate.newBuilder().setCurrency(first.toString()).setValue(firstValue))
+                .addRates(CurrencyRate.newBuilder().setCurrency(second.toString()).setValue(secondValue))
+                .setAsOfMillis(System.currentTimeMillis())
+                .build();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
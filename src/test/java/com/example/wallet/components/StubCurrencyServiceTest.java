@@ -0,0 +1,140 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.LatencyDistribution;
+
+import converter.ConvertRequestV2;
+import converter.ConvertResponseV2;
+import converter.CurrencyGrpc;
+import converter.RateSubscription;
+import converter.RateUpdate;
+import converter.Request;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StubCurrencyServiceTest {
+    private static final Map<Currency, Double> VALUES = Map.of(Currency.INR, 1.0, Currency.USD, 80.0, Currency.GBP, 100.0);
+
+    private StubConverterServer server;
+    private ManagedChannel channel;
+    private CurrencyGrpc.CurrencyBlockingStub stub;
+
+    @BeforeEach
+    void setup() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = StubConverterServer.start(name, 0, VALUES, StubCurrencyService.Faults.NONE);
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = CurrencyGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void teardown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        server.stop();
+    }
+
+    @Test
+    void test_convertsFromConfiguredValues() {
+        assertEquals(160.0f, stub.convert(request(2)).getValue());
+    }
+
+    @Test
+    void test_v2ConversionIsExactInMinorUnits() {
+        ConvertResponseV2 response = stub.convertV2(ConvertRequestV2.newBuilder()
+                .setFromCurrency("GBP")
+                .setToCurrency("USD")
+                .setAmountMinor(123_456_789_012L)
+                .setScale(2)
+                .build());
+
+        assertEquals(154_320_986_265L, response.getAmountMinor());
+        assertEquals(2, response.getScale());
+        assertEquals(1_250_000_000L, response.getRate());
+        assertEquals(9, response.getRateScale());
+    }
+
+    @Test
+    void test_injectedErrorsFailWithTheConfiguredStatus() {
+        server.service().setFaults(faults(LatencyDistribution.FIXED, 0, 1.0, 0));
+
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class, () -> stub.convert(request(1)));
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, exception.getStatus().getCode());
+    }
+
+    @Test
+    void test_injectedTimeoutsRunIntoTheCallerDeadline() {
+        server.service().setFaults(faults(LatencyDistribution.FIXED, 0, 0, 1.0));
+
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> stub.withDeadlineAfter(50, TimeUnit.MILLISECONDS).convert(request(1)));
+
+        assertEquals(Status.Code.DEADLINE_EXCEEDED, exception.getStatus().getCode());
+    }
+
+    @Test
+    void test_injectedLatencyDelaysTheAnswer() {
+        server.service().setFaults(faults(LatencyDistribution.FIXED, 100, 0, 0));
+
+        long start = System.nanoTime();
+        stub.convert(request(1));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+    }
+
+    @Test
+    void test_latencyDrawsStayAboveTheBase() {
+        StubCurrencyService.Faults faults = faults(LatencyDistribution.EXPONENTIAL, 5, 0, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(faults.delayMillis() >= 5);
+        }
+    }
+
+    @Test
+    void test_subscribersReceiveNewValues() {
+        Iterator<RateUpdate> updates = stub.withDeadlineAfter(1, TimeUnit.SECONDS)
+                .subscribeRates(RateSubscription.getDefaultInstance());
+        assertEquals(3, updates.next().getRatesCount());
+
+        server.service().setValues(Map.of(Currency.INR, 1.0, Currency.USD, 82.0));
+
+        assertEquals(2, updates.next().getRatesCount());
+    }
+
+    private static Request request(float value) {
+        return Request.newBuilder()
+                .setFromCurrency("USD")
+                .setToCurrency("INR")
+                .setValue(value)
+                .build();
+    }
+
+    private static StubCurrencyService.Faults faults(
+            LatencyDistribution distribution,
+            long baseMillis,
+            double errorRate,
+            double timeoutRate
+    ) {
+        return new StubCurrencyService.Faults(
+                distribution, baseMillis, 10, 0, 0, errorRate, Status.Code.RESOURCE_EXHAUSTED, timeoutRate
+        );
+    }
+}
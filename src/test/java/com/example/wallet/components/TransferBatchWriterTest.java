@@ -0,0 +1,80 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.Role;
+import com.example.wallet.enums.TransactionType;
+import com.example.wallet.models.PassbookEntry;
+import com.example.wallet.models.Transaction;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.PassbookEntryRepository;
+import com.example.wallet.repository.TransactionRepository;
+import com.example.wallet.repository.UserRepository;
+import com.example.wallet.repository.WalletRepository;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DataJpaTest
+@Import(TransferBatchWriter.class)
+public class TransferBatchWriterTest {
+    @Autowired
+    private TransferBatchWriter batchWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PassbookEntryRepository passbookEntryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void test_rowsAreInsertedAndIdsSetBack() {
+        User sender = userRepository.save(User.builder()
+                .name("sender").username("sender").password("password").location(Location.INDIA).role(Role.USER).build());
+        User receiver = userRepository.save(User.builder()
+                .name("receiver").username("receiver").password("password").location(Location.INDIA).role(Role.USER).build());
+        Wallet sendersWallet = walletRepository.save(new Wallet(new Money(100, Currency.INR), sender));
+        Wallet receiversWallet = walletRepository.save(new Wallet(new Money(Currency.INR), receiver));
+        walletRepository.flush();
+
+        List<PassbookEntry> entries = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PassbookEntry senderEntry = PassbookEntry.builder().money(new Money(10, Currency.INR))
+                    .wallet(sendersWallet).type(TransactionType.TRANSFERRED).serviceCharge(0.0).build();
+            PassbookEntry receiverEntry = PassbookEntry.builder().money(new Money(10, Currency.INR))
+                    .wallet(receiversWallet).type(TransactionType.RECEIVED).serviceCharge(0.0).build();
+            entries.add(senderEntry);
+            entries.add(receiverEntry);
+            transactions.add(Transaction.builder().sender(sender).receiver(receiver)
+                    .senderEntry(senderEntry).receiverEntry(receiverEntry).build());
+        }
+
+        batchWriter.insertEntries(entries);
+        batchWriter.insertTransactions(transactions);
+
+        entries.forEach(entry -> assertNotNull(entry.getId()));
+        transactions.forEach(transaction -> assertNotNull(transaction.getId()));
+        assertEquals(6, passbookEntryRepository.count());
+        assertEquals(3, transactionRepository.count());
+        assertEquals(receiversWallet.getId(),
+                transactionRepository.findById(transactions.get(2).getId()).orElseThrow().getReceiverEntry().getWallet().getId());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.wallet.components;
+
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.models.PassbookEntry;
+import com.example.wallet.models.Transaction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class TransferGroupCommitterTest {
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private WalletRetryExecutor retryExecutor;
+
+    @Mock
+    private WalletLocks walletLocks;
+
+    @Mock
+    private TransferBatchWriter batchWriter;
+
+    private TransferGroupCommitter groupCommitter;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(retryExecutor.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        groupCommitter = new TransferGroupCommitter(
+                transactionTemplate, retryExecutor, walletLocks, batchWriter, true, 500, 3);
+        groupCommitter.start();
+        callers = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void cleanup() {
+        callers.shutdownNow();
+        groupCommitter.shutdown();
+    }
+
+    private static Transaction transaction() {
+        return Transaction.builder().senderEntry(new PassbookEntry()).receiverEntry(new PassbookEntry()).build();
+    }
+
+    private List<Future<Transaction>> submit(List<Supplier<Transaction>> transfers) {
+        List<Future<Transaction>> results = new ArrayList<>();
+        for (Supplier<Transaction> transfer : transfers) {
+            results.add(callers.submit(() -> groupCommitter.commit(List.of(1L, 2L), transfer)));
+        }
+        return results;
+    }
+
+    @Test
+    void test_concurrentTransfersShareOneCommit() throws Exception {
+        List<Transaction> transactions = List.of(transaction(), transaction(), transaction());
+        List<Future<Transaction>> results = submit(List.of(
+                () -> transactions.get(0), () -> transactions.get(1), () -> transactions.get(2)));
+
+        for (Future<Transaction> result : results) {
+            assertTrue(transactions.contains(result.get(5, TimeUnit.SECONDS)));
+        }
+        ArgumentCaptor<List<Transaction>> written = ArgumentCaptor.forClass(List.class);
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(batchWriter, times(1)).insertTransactions(written.capture());
+        verify(batchWriter, times(1)).insertEntries(anyList());
+        assertEquals(3, written.getValue().size());
+    }
+
+    @Test
+    void test_groupLocksAllItsWalletsInAscendingOrderBeforeApplyingAnyMember() throws Exception {
+        List<Long> locked = new ArrayList<>();
+        doAnswer(invocation -> {
+            locked.addAll(List.of((Long[]) invocation.getRawArguments()[0]));
+            return null;
+        }).when(walletLocks).lock(any(Long[].class));
+        Supplier<Transaction> transfer = () -> {
+            assertEquals(List.of(1L, 2L, 3L), locked);
+            return transaction();
+        };
+
+        List<Future<Transaction>> results = List.of(
+                callers.submit(() -> groupCommitter.commit(List.of(2L, 1L), transfer)),
+                callers.submit(() -> groupCommitter.commit(List.of(1L, 2L), transfer)),
+                callers.submit(() -> groupCommitter.commit(List.of(3L, 2L), transfer)));
+
+        for (Future<Transaction> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        verify(walletLocks, times(1)).lock(any(Long[].class));
+    }
+
+    @Test
+    void test_failingMemberIsRejectedAndTheRestOfTheGroupIsRetried() throws Exception {
+        Transaction first = transaction();
+        Transaction third = transaction();
+        List<Future<Transaction>> results = submit(List.of(
+                () -> first,
+                () -> {
+                    throw new OverWithdrawalException();
+                },
+                () -> third));
+
+        assertSame(first, results.get(0).get(5, TimeUnit.SECONDS));
+        Exception failure = assertThrows(Exception.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof OverWithdrawalException);
+        assertSame(third, results.get(2).get(5, TimeUnit.SECONDS));
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(batchWriter, times(1)).insertTransactions(anyList());
+    }
+
+    @Test
+    void test_failedCommitFallsBackToCommittingEachTransferAlone() throws Exception {
+        doThrow(new DataIntegrityViolationException("commit failed")).when(transactionTemplate).execute(any());
+        List<Transaction> transactions = List.of(transaction(), transaction(), transaction());
+        List<Future<Transaction>> results = submit(List.of(
+                () -> transactions.get(0), () -> transactions.get(1), () -> transactions.get(2)));
+
+        for (Future<Transaction> result : results) {
+            assertTrue(transactions.contains(result.get(5, TimeUnit.SECONDS)));
+        }
+        verify(retryExecutor, times(3)).execute(any());
+        verify(batchWriter, times(3)).insertTransactions(anyList());
+    }
+}
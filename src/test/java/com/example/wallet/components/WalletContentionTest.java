@@ -0,0 +1,37 @@
+package com.example.wallet.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WalletContentionTest {
+    @Test
+    void test_collisionsAreCountedPerWalletUntilDrained() {
+        WalletContention contention = new WalletContention(4);
+        contention.record(7L);
+        contention.record(7L);
+        contention.record(8L);
+
+        assertEquals(Map.of(7L, 2L, 8L, 1L), contention.drain());
+        assertTrue(contention.drain().isEmpty());
+    }
+
+    @Test
+    void test_newWalletReplacesTheLeastCountedOnceFull() {
+        WalletContention contention = new WalletContention(2);
+        for (int i = 0; i < 5; i++) {
+            contention.record(7L);
+        }
+        contention.record(8L);
+        contention.record(9L);
+
+        Map<Long, Long> counts = contention.drain();
+
+        assertEquals(2, counts.size());
+        assertEquals(5L, counts.get(7L));
+        assertEquals(2L, counts.get(9L));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.wallet.components;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WalletLockManagerTest {
+    private SimpleMeterRegistry registry;
+    private WalletContention contention;
+    private WalletLockManager lockManager;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        contention = new WalletContention(16);
+        lockManager = new WalletLockManager(registry, contention, true, 16, false);
+    }
+
+    @Test
+    void test_changesToTheSameWalletRunOneAtATime() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    lockManager.withLocks(List.of(1L), List.of(1L), () -> {
+                        if (inside.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        inside.decrementAndGet();
+                        return null;
+                    });
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        assertEquals(0, overlaps.get());
+        assertEquals(800, registry.timer("wallet.lock.wait").count());
+    }
+
+    @Test
+    void test_opposingTransfersDoNotDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger done = new AtomicInteger();
+
+        Future<?> forward = executor.submit(() -> {
+            for (int i = 0; i < 500; i++) {
+                lockManager.withLocks(List.of(1L, 2L), List.of(2L), done::incrementAndGet);
+            }
+        });
+        Future<?> backward = executor.submit(() -> {
+            for (int i = 0; i < 500; i++) {
+                lockManager.withLocks(List.of(2L, 1L), List.of(1L), done::incrementAndGet);
+            }
+        });
+        forward.get(10, TimeUnit.SECONDS);
+        backward.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(1000, done.get());
+    }
+
+    private void waitBehind(Long heldWalletId, Long waitingWalletId) throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        List<Long> holding = List.of(heldWalletId);
+        Future<?> holder = executor.submit(() -> lockManager.withLocks(holding, holding, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        held.await();
+
+        String stripe = String.valueOf(lockManager.stripeOf(waitingWalletId));
+        List<Long> waiting = List.of(waitingWalletId);
+        Thread waiter = new Thread(() -> lockManager.withLocks(waiting, waiting, () -> null));
+        waiter.start();
+        while (registry.counter("wallet.lock.contended", "stripe", stripe).count() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        holder.get();
+        waiter.join();
+        executor.shutdown();
+    }
+
+    @Test
+    void test_waitingOnAHeldStripeIsCountedAsContention() throws Exception {
+        waitBehind(5L, 5L);
+
+        String stripe = String.valueOf(lockManager.stripeOf(5L));
+        assertEquals(1.0, registry.counter("wallet.lock.contended", "stripe", stripe).count());
+        assertEquals(Map.of(5L, 1L), contention.drain());
+    }
+
+    @Test
+    void test_waitingBehindAnotherWalletOnTheStripeIsNotChargedToTheWallet() throws Exception {
+        long mate = 6L;
+        while (lockManager.stripeOf(mate) != lockManager.stripeOf(5L)) {
+            mate++;
+        }
+
+        waitBehind(5L, mate);
+
+        String stripe = String.valueOf(lockManager.stripeOf(5L));
+        assertEquals(1.0, registry.counter("wallet.lock.contended", "stripe", stripe).count());
+        assertEquals(Map.of(), contention.drain());
+    }
+
+    @Test
+    void test_stripesAreHeldUntilTheTransactionCompletes() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lockManager.withLocks(List.of(1L), List.of(1L), () -> null);
+
+            Future<Boolean> next = executor.submit(() -> lockManager.withLocks(List.of(1L), List.of(1L), () -> true));
+            assertThrows(TimeoutException.class, () -> next.get(200, TimeUnit.MILLISECONDS));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            assertTrue(next.get(5, TimeUnit.SECONDS));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void test_disabledManagerTakesNoLocks() {
+        WalletLockManager disabled = new WalletLockManager(registry, new WalletContention(16), false, 16, false);
+
+        assertTrue(disabled.withLocks(List.of(1L), List.of(1L), () -> true));
+        assertFalse(registry.timer("wallet.lock.wait").count() > 0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.wallet.components;
+
+import com.example.wallet.enums.LockingMode;
+import com.example.wallet.models.Wallet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+public class WalletRetryExecutorTest {
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private WalletLocks walletLocks;
+
+    private SimpleMeterRegistry registry;
+    private WalletContention contention;
+    private WalletRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        contention = new WalletContention(16);
+        retryExecutor = new WalletRetryExecutor(
+                new TransactionTemplate(transactionManager), idempotencyStore, walletLocks, contention, registry, 3, 1, 2);
+        when(walletLocks.mode()).thenReturn(LockingMode.OPTIMISTIC);
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException(Wallet.class, 7L);
+    }
+
+    @Test
+    void test_conflictingChangeIsRetriedUntilItCommits() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryExecutor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, registry.counter("wallet.optimistic.conflicts").count());
+        assertEquals(2.0, registry.counter("wallet.optimistic.retries").count());
+        assertEquals(Map.of(7L, 2L), contention.drain());
+    }
+
+    @Test
+    void test_conflictIsThrownOnceAttemptsRunOut() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, registry.counter("wallet.optimistic.conflicts").count());
+        assertEquals(2.0, registry.counter("wallet.optimistic.retries").count());
+    }
+
+    @Test
+    void test_conflictIsNotRetriedUnderPessimisticLocking() {
+        when(walletLocks.mode()).thenReturn(LockingMode.PESSIMISTIC);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void test_lostDeadlockIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryExecutor.retrying(() -> {
+            if (attempts.incrementAndGet() < 2) {
+                throw new CannotAcquireLockException("deadlock detected");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, registry.counter("wallet.optimistic.retries").count());
+    }
+}
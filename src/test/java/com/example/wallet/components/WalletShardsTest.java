@@ -0,0 +1,117 @@
+package com.example.wallet.components;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.Role;
+import com.example.wallet.exceptions.IncompatibleCurrencyException;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.UserRepository;
+import com.example.wallet.repository.WalletRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class WalletShardsTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    private WalletShards walletShards;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setup() {
+        walletShards = new WalletShards(jdbcTemplate, transactionTemplate, true, 4, List.of());
+        User user = userRepository.save(User.builder()
+                .name("merchant").username("merchant").password("password").location(Location.INDIA).role(Role.USER).build());
+        wallet = walletRepository.saveAndFlush(new Wallet(new Money(100, Currency.INR), user));
+    }
+
+    @Test
+    void test_promotedWalletGetsItsSlotsOnce() {
+        assertFalse(walletShards.isSharded(wallet.getId()));
+
+        walletShards.promote(wallet.getId());
+        walletShards.promote(wallet.getId());
+
+        assertTrue(walletShards.isSharded(wallet.getId()));
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM wallet_slots WHERE wallet_id = ?", Integer.class, wallet.getId()));
+    }
+
+    @Test
+    void test_creditsGoToSlotsAndAreSweptIntoTheWallet() {
+        walletShards.promote(wallet.getId());
+        for (int i = 0; i < 10; i++) {
+            walletShards.credit(wallet.getId(), 1_000);
+        }
+
+        assertEquals(new Money(200, Currency.INR), walletShards.balance(wallet));
+        assertEquals(new Money(100, Currency.INR), wallet.getMoney());
+
+        walletShards.sweep(wallet);
+
+        assertEquals(new Money(200, Currency.INR), wallet.getMoney());
+        assertEquals(new Money(200, Currency.INR), walletShards.balance(wallet));
+    }
+
+    @Test
+    void test_walletsShardedElsewhereArePickedUpOnRefresh() {
+        WalletShards other = new WalletShards(jdbcTemplate, transactionTemplate, true, 4, List.of());
+        other.promote(wallet.getId());
+
+        walletShards.refresh();
+
+        assertTrue(walletShards.isSharded(wallet.getId()));
+    }
+
+    @Test
+    void test_slotsAreSweptOnlyWhenTheRowCannotCoverADebit() {
+        walletShards.promote(wallet.getId());
+        walletShards.deposit(wallet, new Money(50, Currency.INR));
+
+        walletShards.cover(wallet, 10_000);
+        assertEquals(new Money(100, Currency.INR), wallet.getMoney());
+
+        walletShards.cover(wallet, 12_000);
+        assertEquals(new Money(150, Currency.INR), wallet.getMoney());
+        assertEquals(new Money(150, Currency.INR), walletShards.balance(wallet));
+    }
+
+    @Test
+    void test_depositThatCannotGoIntoTheWalletLeavesTheSlotsAlone() {
+        walletShards.promote(wallet.getId());
+
+        assertThrows(IncompatibleCurrencyException.class,
+                () -> walletShards.deposit(wallet, new Money(50, Currency.USD)));
+        assertThrows(InvalidAmountException.class,
+                () -> walletShards.deposit(wallet, new Money(0, Currency.INR)));
+
+        assertEquals(new Money(100, Currency.INR), walletShards.balance(wallet));
+    }
+}
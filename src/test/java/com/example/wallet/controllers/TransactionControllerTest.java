@@ -17,6 +17,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.Mockito.reset;
@@ -59,6 +60,25 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).transact(transaction);
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void test_retriedTransactionWithSameIdempotencyKeyRunsOnce() throws Exception {
+        Money money = new Money(50, Currency.INR);
+        TransactionRequest transaction = new TransactionRequest("user", 1L, 2L, money);
+        String request = mapper.writeValueAsString(transaction);
+
+        when(transactionService.transact(transaction)).thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/v1/transactions")
+                    .contentType("application/json")
+                    .header("Idempotency-Key", "retried-transfer")
+                    .content(request)
+            ).andExpect(status().isOk());
+        }
+        verify(transactionService, times(1)).transact(transaction);
+    }
+
     @Test
     void test_transactionNotCompleteWhenUserNotFound_throwsException() throws Exception {
         Money money = new Money(50, Currency.INR);
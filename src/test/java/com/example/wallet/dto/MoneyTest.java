@@ -0,0 +1,79 @@
+package com.example.wallet.dto;
+
+import com.example.wallet.enums.Currency;
+import com.example.wallet.exceptions.IncompatibleCurrencyException;
+import com.example.wallet.exceptions.InvalidAmountException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+    @Test
+    void test_amountIsHeldInMinorUnits() {
+        Money money = new Money(10.25, Currency.USD);
+
+        assertEquals(1025, money.getAmountMinor());
+        assertEquals(10.25, money.getAmount());
+    }
+
+    @Test
+    void test_amountIsRoundedHalfUpToTheMinorUnit() {
+        assertEquals(101, new Money(1.005, Currency.INR).getAmountMinor());
+        assertEquals(100, new Money(1.004, Currency.INR).getAmountMinor());
+    }
+
+    @Test
+    void test_largeBalancesStayExact() {
+        Money money = Money.ofMinor(9_007_199_254_740_000L, Currency.INR);
+
+        money.add(Money.ofMinor(1, Currency.INR));
+
+        assertEquals(9_007_199_254_740_001L, money.getAmountMinor());
+    }
+
+    @Test
+    void test_repeatedAdditionDoesNotDrift() {
+        Money money = new Money(Currency.INR);
+
+        for (int i = 0; i < 1000; i++) {
+            money.add(new Money(0.1, Currency.INR));
+        }
+
+        assertEquals(100.0, money.getAmount());
+    }
+
+    @Test
+    void test_subAmountBelowOneMinorUnit_throwsException() {
+        Money money = new Money(10, Currency.INR);
+
+        assertThrows(InvalidAmountException.class, () -> money.add(new Money(0.004, Currency.INR)));
+    }
+
+    @Test
+    void test_addingAnotherCurrency_throwsException() {
+        Money money = new Money(10, Currency.INR);
+
+        assertThrows(IncompatibleCurrencyException.class, () -> money.add(new Money(1, Currency.USD)));
+    }
+
+    @Test
+    void test_conversionRoundsToTheTargetMinorUnit() {
+        assertEquals(new Money(1.2, Currency.USD), new Money(100, Currency.INR).convertedAt(0.012048, Currency.USD));
+    }
+
+    @Test
+    void test_jsonCarriesTheDecimalAmount() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        String json = mapper.writeValueAsString(new Money(12.5, Currency.GBP));
+        Money read = mapper.readValue("{\"amount\": 12.5, \"currency\": \"GBP\"}", Money.class);
+
+        assertFalse(json.contains("amountMinor"));
+        assertEquals(new Money(12.5, Currency.GBP), read);
+    }
+}
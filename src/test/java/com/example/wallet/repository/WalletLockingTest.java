@@ -0,0 +1,221 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.components.IdempotencyStore;
+import com.example.wallet.components.WalletContention;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.LockingMode;
+import com.example.wallet.enums.Role;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class WalletLockingTest {
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final long LOCK_TIMEOUT_MILLIS = 2_000;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void setup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                    .name("user").username("user").password("password").location(Location.INDIA).role(Role.USER).build());
+            first = walletRepository.save(new Wallet(new Money(10_000, Currency.INR), user)).getId();
+            second = walletRepository.save(new Wallet(new Money(10_000, Currency.INR), user)).getId();
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void test_opposingTransfersUnderContentionLoseNoUpdates() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger firstToSecond = new AtomicInteger();
+        AtomicLong longestNanos = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    boolean forward = ThreadLocalRandom.current().nextBoolean();
+                    long started = System.nanoTime();
+                    transactionTemplate.executeWithoutResult(status -> transfer(forward ? first : second, forward ? second : first));
+                    longestNanos.accumulateAndGet(System.nanoTime() - started, Math::max);
+                    if (forward) {
+                        firstToSecond.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+        int moved = firstToSecond.get() - (transfers - firstToSecond.get());
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(longestNanos.get()) < LOCK_TIMEOUT_MILLIS,
+                "an A->B / B->A transfer waited out the lock timeout");
+        assertEquals(new Money(10_000 - moved, Currency.INR), walletRepository.findById(first).orElseThrow().getMoney());
+        assertEquals(new Money(10_000 + moved, Currency.INR), walletRepository.findById(second).orElseThrow().getMoney());
+    }
+
+    @Test
+    void test_opposingOptimisticTransfersRetryWithoutLosingUpdates() throws Exception {
+        WalletLocks walletLocks = new WalletLocks(walletRepository, LockingMode.OPTIMISTIC, LOCK_TIMEOUT_MILLIS);
+        WalletRetryExecutor retryExecutor = new WalletRetryExecutor(
+                new TransactionTemplate(transactionManager), mock(IdempotencyStore.class), walletLocks,
+                new WalletContention(16), new SimpleMeterRegistry(), 100, 1, 20);
+        AtomicInteger firstToSecond = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    boolean forward = ThreadLocalRandom.current().nextBoolean();
+                    retryExecutor.execute(() -> {
+                        walletLocks.lock(first, second);
+                        move(forward ? first : second, forward ? second : first);
+                        return null;
+                    });
+                    if (forward) {
+                        firstToSecond.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+        int moved = firstToSecond.get() - (transfers - firstToSecond.get());
+
+        assertEquals(new Money(10_000 - moved, Currency.INR), walletRepository.findById(first).orElseThrow().getMoney());
+        assertEquals(new Money(10_000 + moved, Currency.INR), walletRepository.findById(second).orElseThrow().getMoney());
+    }
+
+    @Test
+    void test_walletReadBeforeLockingIsReloadedUnderTheLock() {
+        WalletLocks walletLocks = new WalletLocks(walletRepository, LockingMode.PESSIMISTIC, LOCK_TIMEOUT_MILLIS);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Money balance = transactionTemplate.execute(status -> {
+            Wallet wallet = walletRepository.findById(first).orElseThrow();
+            concurrent.executeWithoutResult(inner ->
+                    walletRepository.findById(first).orElseThrow().withdraw(new Money(2_500, Currency.INR)));
+
+            walletLocks.lock(first);
+            walletLocks.reload(wallet);
+            return wallet.getMoney();
+        });
+
+        assertEquals(new Money(7_500, Currency.INR), balance);
+    }
+
+    @Test
+    void test_lockTimeoutDoesNotOutliveTheLockedRows() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            walletRepository.lockInOrder(List.of(second), LOCK_TIMEOUT_MILLIS);
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        held.await();
+
+        long started = System.nanoTime();
+        try {
+            assertThrows(DataAccessException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+                walletRepository.lockInOrder(List.of(first), 10 * LOCK_TIMEOUT_MILLIS);
+                jdbcTemplate.queryForList("SELECT id FROM wallets WHERE id = ? FOR UPDATE", second);
+            }));
+        } finally {
+            release.countDown();
+            holder.get();
+            executor.shutdown();
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 10 * LOCK_TIMEOUT_MILLIS);
+    }
+
+    private void transfer(Long from, Long to) {
+        walletRepository.lockInOrder(List.of(from, to), LOCK_TIMEOUT_MILLIS);
+        move(from, to);
+    }
+
+    private void move(Long from, Long to) {
+        Wallet sender = walletRepository.findById(from).orElseThrow();
+        Wallet receiver = walletRepository.findById(to).orElseThrow();
+
+        sender.withdraw(new Money(1, Currency.INR));
+        receiver.deposit(new Money(1, Currency.INR));
+    }
+}
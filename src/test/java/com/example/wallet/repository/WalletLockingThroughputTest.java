@@ -0,0 +1,151 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.components.IdempotencyStore;
+import com.example.wallet.components.WalletContention;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.LockingMode;
+import com.example.wallet.enums.Role;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Load test: measures opposing transfers per second between two hot wallets
+ * for each way of serializing them. Correctness under contention is covered by
+ * {@link WalletLockingTest}.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class WalletLockingThroughputTest {
+    private static final int THREADS = 8;
+    private static final int WARMUP_TRANSFERS_PER_THREAD = 10;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final long LOCK_TIMEOUT_MILLIS = 2_000;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void setup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                    .name("user").username("user").password("password").location(Location.INDIA).role(Role.USER).build());
+            first = walletRepository.save(new Wallet(new Money(100_000, Currency.INR), user)).getId();
+            second = walletRepository.save(new Wallet(new Money(100_000, Currency.INR), user)).getId();
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        walletRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void test_throughputOfOpposingTransfersPerLockingMode() throws Exception {
+        Map<String, Transfer> modes = new LinkedHashMap<>();
+        modes.put("pessimistic", transfer(LockingMode.PESSIMISTIC, false));
+        modes.put("optimistic", transfer(LockingMode.OPTIMISTIC, false));
+        modes.put("striped", transfer(LockingMode.NONE, true));
+
+        for (Map.Entry<String, Transfer> mode : modes.entrySet()) {
+            run(mode.getValue(), WARMUP_TRANSFERS_PER_THREAD);
+            long nanos = run(mode.getValue(), TRANSFERS_PER_THREAD);
+
+            int transfers = THREADS * TRANSFERS_PER_THREAD;
+            System.out.printf("wallet locking %-11s %8.1f transfers/s (%d transfers, %d threads, %d ms)%n",
+                    mode.getKey(), transfers * 1e9 / nanos, transfers, THREADS, TimeUnit.NANOSECONDS.toMillis(nanos));
+            assertEquals(200_000 * 100L, walletRepository.findById(first).orElseThrow().getMoney().getAmountMinor()
+                    + walletRepository.findById(second).orElseThrow().getMoney().getAmountMinor());
+        }
+    }
+
+    private Transfer transfer(LockingMode mode, boolean striped) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WalletContention contention = new WalletContention(16);
+        WalletLocks walletLocks = new WalletLocks(walletRepository, mode, LOCK_TIMEOUT_MILLIS);
+        WalletLockManager lockManager = new WalletLockManager(registry, contention, striped, 64, false);
+        WalletRetryExecutor retryExecutor = new WalletRetryExecutor(
+                new TransactionTemplate(transactionManager), mock(IdempotencyStore.class), walletLocks,
+                contention, registry, 100, 1, 20);
+
+        return (from, to) -> retryExecutor.execute(() -> lockManager.withLocks(List.of(from, to), List.of(to), () -> {
+            walletLocks.lock(from, to);
+            Wallet sender = walletRepository.findById(from).orElseThrow();
+            Wallet receiver = walletRepository.findById(to).orElseThrow();
+            walletLocks.reload(sender, receiver);
+            sender.withdraw(new Money(1, Currency.INR));
+            receiver.deposit(new Money(1, Currency.INR));
+            return null;
+        }));
+    }
+
+    private long run(Transfer transfer, int transfersPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS + 1);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    boolean forward = ThreadLocalRandom.current().nextBoolean();
+                    transfer.run(forward ? first : second, forward ? second : first);
+                }
+                return null;
+            }));
+        }
+        start.await();
+        long started = System.nanoTime();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private interface Transfer {
+        void run(Long from, Long to);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.dto.Money;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.Location;
+import com.example.wallet.enums.Role;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+
+import jakarta.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class WalletRepositoryTest {
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Wallet sendersWallet;
+    private Wallet receiversWallet;
+
+    @BeforeEach
+    void setup() {
+        User sender = userRepository.save(User.builder()
+                .name("sender").username("sender").password("password").location(Location.INDIA).role(Role.USER).build());
+        User receiver = userRepository.save(User.builder()
+                .name("receiver").username("receiver").password("password").location(Location.BRITAIN).role(Role.USER).build());
+        sendersWallet = walletRepository.save(new Wallet(new Money(100, Currency.INR), sender));
+        receiversWallet = walletRepository.save(new Wallet(new Money(10, Currency.GBP), receiver));
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics().clear();
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void test_transferWalletsAndOwnersAreLoadedInOneQuery() {
+        List<Wallet> wallets = walletRepository.findTransferWallets(
+                sendersWallet.getId(), "sender", receiversWallet.getId(), "receiver");
+        wallets.forEach(wallet -> wallet.getUser().getUsername());
+
+        assertEquals(2, wallets.size());
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void test_separateLookupsTakeMoreQueries() {
+        User sender = userRepository.findByUsername("sender").orElseThrow();
+        User receiver = userRepository.findByUsername("receiver").orElseThrow();
+        walletRepository.findByIdAndUser(sendersWallet.getId(), sender).orElseThrow();
+        walletRepository.findByIdAndUser(receiversWallet.getId(), receiver).orElseThrow();
+
+        assertEquals(4, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void test_walletOfAnotherUserIsNotReturned() {
+        List<Wallet> wallets = walletRepository.findTransferWallets(
+                receiversWallet.getId(), "sender", receiversWallet.getId(), "sender");
+
+        assertTrue(wallets.isEmpty());
+    }
+}
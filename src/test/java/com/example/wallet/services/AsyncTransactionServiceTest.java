@@ -0,0 +1,207 @@
+package com.example.wallet.services;
+
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.dto.TransactionRequest;
+import com.example.wallet.dto.TransferStatus;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.TransferStage;
+import com.example.wallet.exceptions.ConverterUnavailableException;
+import com.example.wallet.exceptions.IncompleteTransferException;
+import com.example.wallet.exceptions.InvalidAmountException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.exceptions.TransferNotFoundException;
+import com.example.wallet.exceptions.TransferQueueFullException;
+import com.example.wallet.models.Transaction;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class AsyncTransactionServiceTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private QuoteService quoteService;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    private AsyncTransactionService asyncTransactionService;
+    private Quote priced;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(new Wallet(new Money(Currency.GBP), null)));
+        priced = Quote.builder().username("user").build();
+        when(quoteService.price(eq("user"), any(Money.class), eq(Currency.GBP))).thenReturn(priced);
+        asyncTransactionService = new AsyncTransactionService(
+                transactionService, quoteService, walletRepository, new SimpleMeterRegistry(), 1, 100);
+    }
+
+    @AfterEach
+    void cleanup() {
+        asyncTransactionService.shutdown();
+    }
+
+    private static TransactionRequest request() {
+        return new TransactionRequest("receiver", 1L, 2L, new Money(100, Currency.INR));
+    }
+
+    private static TransferStatus transfer(ResponseEntity<ApiResponse> response) {
+        return (TransferStatus) Objects.requireNonNull(response.getBody()).getData().get("transfer");
+    }
+
+    private TransferStatus awaitStage(String transferId, TransferStage stage) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        TransferStatus status = transfer(asyncTransactionService.status(transferId));
+        while (status.getStage() != stage && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+            status = transfer(asyncTransactionService.status(transferId));
+        }
+        return status;
+    }
+
+    @Test
+    void test_transferIsAcceptedThenPricedAndCompleted() throws Exception {
+        Transaction transaction = new Transaction();
+        transaction.setId(7L);
+        when(transactionService.send(eq("user"), any(TransactionRequest.class), eq(priced))).thenReturn(transaction);
+
+        ResponseEntity<ApiResponse> response = asyncTransactionService.transact(request());
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(TransferStage.ACCEPTED, transfer(response).getStage());
+        TransferStatus status = awaitStage(transfer(response).getTransferId(), TransferStage.COMPLETED);
+        assertEquals(TransferStage.COMPLETED, status.getStage());
+        assertEquals(7L, status.getTransactionId());
+        verify(transactionService).send(eq("user"), eq(request()), eq(priced));
+        verify(quoteService, never()).issue(any(), any(), any());
+    }
+
+    @Test
+    void test_failedTransferReportsItsError() throws Exception {
+        when(transactionService.send(eq("user"), any(TransactionRequest.class), eq(priced))).thenThrow(new OverWithdrawalException());
+
+        ResponseEntity<ApiResponse> response = asyncTransactionService.transact(request());
+
+        TransferStatus status = awaitStage(transfer(response).getTransferId(), TransferStage.FAILED);
+        assertEquals(TransferStage.FAILED, status.getStage());
+        assertEquals("OverWithdrawalException", status.getError());
+    }
+
+    @Test
+    void test_invalidTransferIsRejectedBeforeItIsQueued() {
+        TransactionRequest request = new TransactionRequest("receiver", 1L, 2L, new Money(0, Currency.INR));
+
+        assertThrows(InvalidAmountException.class, () -> asyncTransactionService.transact(request));
+        verify(quoteService, never()).price(any(), any(), any());
+    }
+
+    @Test
+    void test_transferWithoutReceiverIsABadRequest() {
+        TransactionRequest request = new TransactionRequest(null, 1L, 2L, new Money(100, Currency.INR));
+
+        assertThrows(IncompleteTransferException.class, () -> asyncTransactionService.transact(request));
+    }
+
+    @Test
+    void test_transferNamingAQuoteSettlesAgainstIt() throws Exception {
+        when(transactionService.send(eq("user"), any(TransactionRequest.class))).thenReturn(new Transaction());
+        TransactionRequest request = new TransactionRequest("receiver", 1L, 2L, new Money(100, Currency.INR), "quote");
+
+        String transferId = transfer(asyncTransactionService.transact(request)).getTransferId();
+
+        assertEquals(TransferStage.COMPLETED, awaitStage(transferId, TransferStage.COMPLETED).getStage());
+        verify(transactionService).send("user", request);
+        verify(quoteService, never()).price(any(), any(), any());
+    }
+
+    @Test
+    void test_fullPipelineTurnsTransfersAway() {
+        when(transactionService.send(eq("user"), any(TransactionRequest.class), eq(priced))).thenAnswer(invocation -> {
+            // Holds the writer until the pipeline is shut down.
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Transaction();
+        });
+
+        asyncTransactionService.transact(request());
+        verify(transactionService, timeout(5000)).send(eq("user"), any(TransactionRequest.class), eq(priced));
+        asyncTransactionService.transact(request());
+        verify(quoteService, timeout(5000).times(2)).price(any(), any(), any());
+        asyncTransactionService.transact(request());
+        verify(quoteService, timeout(5000).times(3)).price(any(), any(), any());
+        asyncTransactionService.transact(request());
+
+        assertThrows(TransferQueueFullException.class, () -> asyncTransactionService.transact(request()));
+    }
+
+    @Test
+    void test_failedPricingReportsItsError() throws Exception {
+        when(quoteService.price(eq("user"), any(Money.class), eq(Currency.GBP))).thenThrow(new ConverterUnavailableException());
+
+        String transferId = transfer(asyncTransactionService.transact(request())).getTransferId();
+
+        TransferStatus status = awaitStage(transferId, TransferStage.FAILED);
+        assertEquals("ConverterUnavailableException", status.getError());
+        verify(transactionService, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void test_stoppedPipelineTurnsTransfersAway() {
+        asyncTransactionService.shutdown();
+
+        assertThrows(TransferQueueFullException.class, () -> asyncTransactionService.transact(request()));
+    }
+
+    @Test
+    void test_statusOfAnotherUsersTransferIsNotFound() {
+        when(transactionService.send(eq("user"), any(TransactionRequest.class), eq(priced))).thenReturn(new Transaction());
+        String transferId = transfer(asyncTransactionService.transact(request())).getTransferId();
+        when(authentication.getName()).thenReturn("another");
+
+        assertThrows(TransferNotFoundException.class, () -> asyncTransactionService.status(transferId));
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.wallet.services;
+
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.FeeSchedule;
+import com.example.wallet.components.LedgerEngine;
+import com.example.wallet.components.LedgerEventStore;
+import com.example.wallet.components.QuoteStore;
+import com.example.wallet.components.TransferBatchWriter;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.components.WalletShards;
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.BatchItemResult;
+import com.example.wallet.dto.BatchTransactionRequest;
+import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.dto.TransactionRequest;
+import com.example.wallet.enums.BatchMode;
+import com.example.wallet.enums.Currency;
+import com.example.wallet.enums.TransactionType;
+import com.example.wallet.exceptions.ConverterUnavailableException;
+import com.example.wallet.exceptions.InvalidBatchException;
+import com.example.wallet.exceptions.LedgerJournalFullException;
+import com.example.wallet.exceptions.OverWithdrawalException;
+import com.example.wallet.exceptions.UnsupportedBatchModeException;
+import com.example.wallet.models.Transaction;
+import com.example.wallet.models.User;
+import com.example.wallet.models.Wallet;
+import com.example.wallet.repository.WalletRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class BatchTransactionServiceTest {
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @Mock
+    private FeeSchedule feeSchedule;
+
+    @Mock
+    private QuoteStore quoteStore;
+
+    @Mock
+    private WalletLocks walletLocks;
+
+    @Mock
+    private WalletRetryExecutor retryExecutor;
+
+    @Mock
+    private WalletLockManager walletLockManager;
+
+    @Mock
+    private TransferBatchWriter batchWriter;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private LedgerEventStore eventStore;
+
+    @Mock
+    private WalletShards walletShards;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private BatchTransactionService batchTransactionService;
+
+    private Wallet sendersWallet;
+    private Wallet receiversWallet;
+    private Wallet receiversDollarWallet;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        doCallRealMethod().when(walletShards).deposit(any(), any());
+        batchTransactionService = new BatchTransactionService(walletRepository, currencyConverter, feeSchedule,
+                quoteStore, walletLocks, retryExecutor, walletLockManager, batchWriter, ledgerEngine, eventStore, walletShards, transactionService, 3);
+        when(retryExecutor.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(walletLockManager.withLocks(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        doAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            for (int i = 0; i < transactions.size(); i++) {
+                transactions.get(i).setId(100L + i);
+            }
+            return null;
+        }).when(batchWriter).insertTransactions(anyList());
+
+        SecurityContext securityContext = mock(SecurityContext.class);
+        Authentication authentication = mock(Authentication.class);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("sender");
+
+        User sender = User.builder().id(1L).username("sender").build();
+        User receiver = User.builder().id(2L).username("receiver").build();
+        sendersWallet = new Wallet(new Money(100, Currency.INR), sender);
+        sendersWallet.setId(1L);
+        receiversWallet = new Wallet(new Money(Currency.INR), receiver);
+        receiversWallet.setId(2L);
+        receiversDollarWallet = new Wallet(new Money(Currency.USD), receiver);
+        receiversDollarWallet.setId(3L);
+        when(walletRepository.findAllWithUsersByIdIn(any()))
+                .thenReturn(List.of(sendersWallet, receiversWallet, receiversDollarWallet));
+    }
+
+    private static TransactionRequest transfer(Long receivingWalletId, double amount) {
+        return new TransactionRequest("receiver", 1L, receivingWalletId, new Money(amount, Currency.INR));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<BatchItemResult> results(ResponseEntity<ApiResponse> response) {
+        return (List<BatchItemResult>) Objects.requireNonNull(response.getBody()).getData().get("results");
+    }
+
+    @Test
+    void test_bestEffortAppliesEveryTransferThatSucceeds() {
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(
+                transfer(2L, 40), transfer(2L, 80), transfer(2L, 60)));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        List<BatchItemResult> results = results(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(HttpStatus.OK, results.get(0).getStatus());
+        assertEquals(100L, results.get(0).getTransactionId());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(1).getStatus());
+        assertEquals("OverWithdrawalException", results.get(1).getError());
+        assertEquals(HttpStatus.OK, results.get(2).getStatus());
+        assertEquals(101L, results.get(2).getTransactionId());
+        assertEquals(new Money(0, Currency.INR), sendersWallet.getMoney());
+        assertEquals(new Money(100, Currency.INR), receiversWallet.getMoney());
+        verify(batchWriter, times(1)).insertEntries(anyList());
+        verify(batchWriter, times(1)).insertTransactions(anyList());
+    }
+
+    @Test
+    void test_incompleteItemIsRejectedOnItsOwn() {
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(
+                transfer(2L, 40), new TransactionRequest("receiver", 1L, 2L, null), transfer(2L, 10)));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        List<BatchItemResult> results = results(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, results.get(1).getStatus());
+        assertEquals("IncompleteTransferException", results.get(1).getError());
+        assertEquals(HttpStatus.OK, results.get(2).getStatus());
+        assertEquals(new Money(50, Currency.INR), sendersWallet.getMoney());
+    }
+
+    @Test
+    void test_converterOutageFailsTheWholeBatch() {
+        when(currencyConverter.rate(Currency.INR, Currency.USD)).thenThrow(new ConverterUnavailableException());
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(
+                transfer(2L, 40), transfer(3L, 10)));
+
+        assertThrows(ConverterUnavailableException.class, () -> batchTransactionService.transact(request));
+        verify(batchWriter, never()).insertTransactions(anyList());
+    }
+
+    @Test
+    void test_allOrNothingRollsBackOnFirstFailure() {
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                transfer(2L, 40), transfer(1L, 10), transfer(2L, 10)));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        List<BatchItemResult> results = results(response);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.FAILED_DEPENDENCY, results.get(0).getStatus());
+        assertEquals("UnauthorizedWalletAccessException", results.get(1).getError());
+        assertEquals(HttpStatus.FAILED_DEPENDENCY, results.get(2).getStatus());
+        verify(batchWriter, never()).insertEntries(anyList());
+        verify(walletRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void test_quoteSettlesOneTransferOnly() {
+        Quote quote = Quote.builder()
+                .quoteId("quote")
+                .username("sender")
+                .money(new Money(10, Currency.INR))
+                .converted(new Money(0.12, Currency.USD))
+                .build();
+        TransactionRequest quoted = new TransactionRequest("receiver", 1L, 3L, new Money(10, Currency.INR), "quote");
+        when(quoteStore.claim("quote")).thenReturn(Optional.of(quote));
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(quoted, quoted));
+
+        List<BatchItemResult> results = results(batchTransactionService.transact(request));
+
+        assertEquals(HttpStatus.OK, results.get(0).getStatus());
+        assertEquals("QuoteNotFoundException", results.get(1).getError());
+        assertEquals(new Money(0.12, Currency.USD), receiversDollarWallet.getMoney());
+        verify(quoteStore, times(1)).claim("quote");
+        verify(quoteStore, never()).restore(any(Quote.class));
+    }
+
+    @Test
+    void test_rolledBackBatchPutsItsQuotesBack() {
+        Quote quote = Quote.builder()
+                .quoteId("quote")
+                .username("sender")
+                .money(new Money(10, Currency.INR))
+                .converted(new Money(0.12, Currency.USD))
+                .build();
+        when(quoteStore.claim("quote")).thenReturn(Optional.of(quote));
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                new TransactionRequest("receiver", 1L, 3L, new Money(10, Currency.INR), "quote"), transfer(1L, 10)));
+
+        batchTransactionService.transact(request);
+
+        verify(quoteStore, times(1)).restore(quote);
+    }
+
+    @Test
+    void test_eachCurrencyPairIsPricedOnce() {
+        when(currencyConverter.rate(Currency.INR, Currency.USD)).thenReturn(0.0125);
+        when(feeSchedule.charge(any(Money.class), any())).thenReturn(new Money(1, Currency.INR));
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                transfer(3L, 40), transfer(3L, 40), transfer(2L, 10)));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new Money(1, Currency.USD), receiversDollarWallet.getMoney());
+        assertEquals(new Money(8, Currency.INR), sendersWallet.getMoney());
+        verify(currencyConverter, times(1)).rate(Currency.INR, Currency.USD);
+        verify(walletRepository, times(1)).findAllWithUsersByIdIn(any());
+    }
+
+    @Test
+    void test_batchLargerThanMaxSizeIsRejected() {
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(
+                transfer(2L, 1), transfer(2L, 1), transfer(2L, 1), transfer(2L, 1)));
+
+        assertThrows(InvalidBatchException.class, () -> batchTransactionService.transact(request));
+    }
+
+    @Test
+    void test_engineSendsBestEffortItemsOneByOneWithoutWritingWallets() {
+        when(ledgerEngine.isEnabled()).thenReturn(true);
+        TransactionRequest first = transfer(2L, 40);
+        TransactionRequest second = transfer(2L, 80);
+        when(transactionService.send("sender", first)).thenReturn(Transaction.builder().build());
+        when(transactionService.send("sender", second)).thenThrow(new OverWithdrawalException());
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(first, second));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        List<BatchItemResult> results = results(response);
+        assertEquals(HttpStatus.OK, results.get(0).getStatus());
+        assertEquals("OverWithdrawalException", results.get(1).getError());
+        verify(walletRepository, never()).saveAll(any());
+        verify(batchWriter, never()).insertEntries(anyList());
+    }
+
+    @Test
+    void test_fullJournalFailsTheWholeBatch() {
+        when(ledgerEngine.isEnabled()).thenReturn(true);
+        TransactionRequest first = transfer(2L, 40);
+        when(transactionService.send("sender", first)).thenThrow(new LedgerJournalFullException());
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.BEST_EFFORT, List.of(first, transfer(2L, 80)));
+
+        assertThrows(LedgerJournalFullException.class, () -> batchTransactionService.transact(request));
+        verify(transactionService, times(1)).send(any(), any());
+    }
+
+    @Test
+    void test_engineRefusesAllOrNothingBatches() {
+        when(ledgerEngine.isEnabled()).thenReturn(true);
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(transfer(2L, 1)));
+
+        assertThrows(UnsupportedBatchModeException.class, () -> batchTransactionService.transact(request));
+        verify(transactionService, never()).send(any(), any());
+    }
+
+    @Test
+    void test_eventStoreAppendsLegsOnTopOfEachOtherWithoutWritingWallets() {
+        when(eventStore.isEnabled()).thenReturn(true);
+        when(retryExecutor.retrying(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(eventStore.head(any())).thenReturn(new LedgerEventStore.Head(0, 10_000));
+        when(eventStore.append(any(), any(), anyLong(), any(), anyLong())).thenAnswer(invocation -> {
+            LedgerEventStore.Head head = invocation.getArgument(1);
+            return new LedgerEventStore.Head(head.seq() + 1, head.balanceMinor() + invocation.<Long>getArgument(2));
+        });
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                transfer(2L, 40), transfer(2L, 60)));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(eventStore, times(1)).append(eq(sendersWallet), eq(new LedgerEventStore.Head(1, 6_000)),
+                eq(-6_000L), eq(TransactionType.TRANSFERRED), anyLong());
+        verify(eventStore, times(1)).append(eq(receiversWallet), eq(new LedgerEventStore.Head(1, 14_000)),
+                eq(6_000L), eq(TransactionType.RECEIVED), anyLong());
+        verify(walletLocks, never()).lock(any());
+        verify(walletRepository, never()).saveAll(any());
+        assertEquals(new Money(100, Currency.INR), sendersWallet.getMoney());
+    }
+
+    @Test
+    void test_eventStoreAppendsLegsInWalletIdOrder() {
+        sendersWallet.setId(5L);
+        when(eventStore.isEnabled()).thenReturn(true);
+        when(retryExecutor.retrying(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(eventStore.head(any())).thenReturn(new LedgerEventStore.Head(0, 10_000));
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                new TransactionRequest("receiver", 5L, 2L, new Money(40, Currency.INR))));
+
+        batchTransactionService.transact(request);
+
+        InOrder order = inOrder(eventStore);
+        order.verify(eventStore).append(eq(receiversWallet), any(), eq(4_000L), eq(TransactionType.RECEIVED), anyLong());
+        order.verify(eventStore).append(eq(sendersWallet), any(), eq(-4_000L), eq(TransactionType.TRANSFERRED), anyLong());
+    }
+
+    @Test
+    void test_shardedReceiverIsCreditedThroughSlotsAndLeftUnlocked() {
+        when(walletShards.isSharded(2L)).thenReturn(true);
+        BatchTransactionRequest request = new BatchTransactionRequest(BatchMode.ALL_OR_NOTHING, List.of(
+                transfer(2L, 40), transfer(2L, 60)));
+
+        ResponseEntity<ApiResponse> response = batchTransactionService.transact(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(walletLockManager, times(1)).withLocks(eq(Set.of(1L)), any(), any());
+        verify(walletLocks, times(1)).lock(1L);
+        verify(walletShards, times(1)).credit(2L, 4_000L);
+        verify(walletShards, times(1)).credit(2L, 6_000L);
+        verify(walletShards, times(1)).cover(sendersWallet, 4_000L);
+        assertEquals(new Money(0, Currency.INR), receiversWallet.getMoney());
+        assertEquals(new Money(0, Currency.INR), sendersWallet.getMoney());
+    }
+}
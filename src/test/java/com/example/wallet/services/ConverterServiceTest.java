@@ -0,0 +1,69 @@
+package com.example.wallet.services;
+
+import com.example.wallet.components.CurrencyConversionClient;
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.ConverterEndpointsDTO;
+import com.example.wallet.exceptions.InvalidConverterEndpointsException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ConverterServiceTest {
+    @Mock
+    private CurrencyConversionClient conversionClient;
+
+    @InjectMocks
+    private ConverterService converterService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void test_listEndpointsWithTheirHealth() {
+        when(conversionClient.endpoints()).thenReturn(List.of("a:8001", "b:8001"));
+        when(conversionClient.healthyEndpoints()).thenReturn(List.of("a:8001"));
+
+        ResponseEntity<ApiResponse> response = converterService.endpoints();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of("a:8001"), Objects.requireNonNull(response.getBody()).getData().get("healthy"));
+    }
+
+    @Test
+    void test_updateEndpointsSuccessfully() {
+        List<String> endpoints = List.of("a:8001", "c:8001");
+        when(conversionClient.endpoints()).thenReturn(endpoints);
+
+        ResponseEntity<ApiResponse> response = converterService.updateEndpoints(new ConverterEndpointsDTO(endpoints));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(conversionClient, times(1)).updateEndpoints(endpoints);
+    }
+
+    @Test
+    void test_updateWithNoEndpoints_throwsException() {
+        assertThrows(InvalidConverterEndpointsException.class,
+                () -> converterService.updateEndpoints(new ConverterEndpointsDTO(List.of())));
+        verify(conversionClient, never()).updateEndpoints(any());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.wallet.services;
 
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.dto.CurrencyDTO;
+import com.example.wallet.dto.CurrencyRatesChangedEvent;
 import com.example.wallet.enums.Currency;
 import com.example.wallet.exceptions.CurrencyAlreadyExistsException;
 import com.example.wallet.models.CurrencyValue;
@@ -14,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -31,6 +33,9 @@ public class CurrencyServiceTest {
     @Mock
     private CurrencyRepository currencyRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CurrencyService currencyService;
 
@@ -48,6 +53,7 @@ public class CurrencyServiceTest {
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals("new currency added", Objects.requireNonNull(response.getBody()).getDeveloperMessage());
+        verify(eventPublisher, times(1)).publishEvent(new CurrencyRatesChangedEvent(List.of(Currency.INR)));
     }
 
     @Test
@@ -87,6 +93,9 @@ public class CurrencyServiceTest {
         assertEquals(secondCurrencyRequest.getValue(), secondCurrency.getValue());
         assertEquals(thirdCurrencyRequest.getValue(), thirdCurrency.getValue());
         verify(currencyRepository, times(1)).saveAll(currencies);
+        verify(eventPublisher, times(1)).publishEvent(
+                new CurrencyRatesChangedEvent(List.of(Currency.INR, Currency.USD, Currency.GBP))
+        );
     }
 
     @Test
@@ -0,0 +1,88 @@
+package com.example.wallet.services;
+
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.FeeSchedule;
+import com.example.wallet.components.QuoteStore;
+import com.example.wallet.dto.ApiResponse;
+import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
+import com.example.wallet.dto.QuoteRequest;
+import com.example.wallet.enums.Currency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class QuoteServiceTest {
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @Mock
+    private FeeSchedule feeSchedule;
+
+    @Mock
+    private QuoteStore quoteStore;
+
+    @InjectMocks
+    private QuoteService quoteService;
+
+    @BeforeEach
+    void setup() {
+        openMocks(this);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        Authentication authentication = mock(Authentication.class);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(quoteStore.issue(any(Quote.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void test_quoteIsPricedWithRateAndServiceCharge() {
+        Money money = new Money(100, Currency.INR);
+        when(currencyConverter.rate(Currency.INR, Currency.GBP)).thenReturn(0.01);
+        when(feeSchedule.charge(money, Currency.GBP)).thenReturn(new Money(10, Currency.INR));
+
+        ResponseEntity<ApiResponse> response = quoteService.quote(new QuoteRequest(money, Currency.GBP));
+
+        Quote quote = (Quote) Objects.requireNonNull(response.getBody()).getData().get("quote");
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("user", quote.getUsername());
+        assertEquals(new Money(1, Currency.GBP), quote.getConverted());
+        assertEquals(new Money(10, Currency.INR), quote.getServiceCharge());
+        verify(currencyConverter, never()).convert(any(Money.class), any(Currency.class));
+    }
+
+    @Test
+    void test_sameCurrencyQuoteHasNoServiceCharge() {
+        Money money = new Money(100, Currency.INR);
+        when(currencyConverter.rate(Currency.INR, Currency.INR)).thenReturn(1.0);
+
+        ResponseEntity<ApiResponse> response = quoteService.quote(new QuoteRequest(money, Currency.INR));
+
+        Quote quote = (Quote) Objects.requireNonNull(response.getBody()).getData().get("quote");
+        assertEquals(money, quote.getConverted());
+        assertNull(quote.getServiceCharge());
+        verify(feeSchedule, never()).charge(any(Money.class), any(Currency.class));
+    }
+}
@@ -1,7 +1,18 @@
 package com.example.wallet.services;
 
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.LedgerEngine;
+import com.example.wallet.components.LedgerEventStore;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.components.WalletShards;
+import com.example.wallet.components.FeeSchedule;
+import com.example.wallet.components.QuoteStore;
+import com.example.wallet.components.TransferGroupCommitter;
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.dto.Money;
+import com.example.wallet.dto.Quote;
 import com.example.wallet.dto.TransactionRequest;
 import com.example.wallet.enums.Currency;
 import com.example.wallet.enums.TransactionType;
@@ -18,6 +29,7 @@ import com.example.wallet.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
@@ -30,12 +42,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -58,6 +75,35 @@ public class TransactionServiceTest {
     @Mock
     private PassbookEntryRepository passbookEntryRepository;
 
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @Mock
+    private WalletLocks walletLocks;
+
+    @Mock
+    private WalletRetryExecutor retryExecutor;
+
+    @Mock
+    private WalletLockManager walletLockManager;
+
+    @Mock
+    private FeeSchedule feeSchedule;
+
+    @Mock
+    private QuoteStore quoteStore;
+
+    @Mock
+    private TransferGroupCommitter groupCommitter;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private LedgerEventStore eventStore;
+
+    @Mock
+    private WalletShards walletShards;
 
     @InjectMocks
     private TransactionService transactionService;
@@ -65,6 +111,15 @@ public class TransactionServiceTest {
     @BeforeEach
     void setup() {
         openMocks(this);
+        doCallRealMethod().when(walletShards).deposit(any(), any());
+        when(retryExecutor.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(walletLockManager.withLocks(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(currencyConverter.convert(any(Money.class), any(Currency.class)))
+                .thenAnswer(invocation -> new Money(invocation.<Money>getArgument(0).getAmount(), invocation.getArgument(1)));
+        when(currencyConverter.convertAsync(any(Money.class), any(Currency.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new Money(invocation.<Money>getArgument(0).getAmount(), invocation.getArgument(1))
+                ));
     }
 
     @Test
@@ -83,16 +138,24 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("user");
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(anotherUser));
-        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
-        when(walletRepository.findByIdAndUser(anotherWalletId, anotherUser)).thenReturn(Optional.of(anotherWallet));
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
         ResponseEntity<ApiResponse> response = transactionService.transact(request);
 
+        InOrder order = inOrder(walletRepository, walletLocks);
+        order.verify(walletRepository).findTransferWallets(walletId, "user", anotherWalletId, "username");
+        order.verify(walletLocks).lock(walletId, anotherWalletId);
+        order.verify(walletLocks).reload(wallet, anotherWallet);
         verify(wallet, times(1)).withdraw(transactionAmount);
         verify(wallet, never()).deposit(transactionAmount);
         verify(anotherWallet, times(1)).deposit(transactionAmount);
         verify(anotherWallet, never()).withdraw(transactionAmount);
+        verify(currencyConverter, never()).convertAsync(any(Money.class), any(Currency.class));
+        verify(feeSchedule, never()).charge(any(Money.class), any(Currency.class));
         verify(walletRepository, times(1)).saveAll(List.of(wallet, anotherWallet));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
         verify(passbookEntryRepository, times(1)).saveAll(any(List.class));
@@ -100,6 +163,165 @@ public class TransactionServiceTest {
         assertEquals("transaction complete", Objects.requireNonNull(response.getBody()).getDeveloperMessage());
     }
 
+    @Test
+    void test_groupCommitLeavesEntriesAndTransactionToTheCommitter() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Wallet wallet = spy(new Wallet(new Money(300, Currency.INR), user));
+        Wallet anotherWallet = spy(new Wallet(new Money(), anotherUser));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        Money transactionAmount = new Money(100, Currency.INR);
+        TransactionRequest request = new TransactionRequest("username", 1L, 2L, transactionAmount);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(1L);
+        anotherWallet.setId(2L);
+        when(walletRepository.findTransferWallets(1L, "user", 2L, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(walletRepository.findAllWithUsersByIdIn(List.of(1L, 2L))).thenReturn(List.of(wallet, anotherWallet));
+        when(groupCommitter.isEnabled()).thenReturn(true);
+        when(groupCommitter.commit(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        ResponseEntity<ApiResponse> response = transactionService.transact(request);
+
+        InOrder order = inOrder(walletRepository, groupCommitter);
+        order.verify(walletRepository).findTransferWallets(1L, "user", 2L, "username");
+        order.verify(groupCommitter).commit(eq(List.of(1L, 2L)), any());
+        order.verify(walletRepository).findAllWithUsersByIdIn(List.of(1L, 2L));
+        verify(walletLocks, never()).lock(any(Long[].class));
+        verify(walletLockManager, never()).withLocks(any(), any(), any());
+        verify(anotherWallet, times(1)).deposit(transactionAmount);
+        verify(walletRepository, times(1)).saveAll(List.of(wallet, anotherWallet));
+        verify(passbookEntryRepository, never()).saveAll(any(List.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void test_eventStoreAppendsBothLegsWithoutUpdatingWallets() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Wallet wallet = spy(new Wallet(new Money(300, Currency.INR), user));
+        Wallet anotherWallet = spy(new Wallet(new Money(), anotherUser));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        TransactionRequest request = new TransactionRequest("username", 1L, 2L, new Money(100, Currency.INR));
+        LedgerEventStore.Head head = new LedgerEventStore.Head(0, 30_000);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(1L);
+        anotherWallet.setId(2L);
+        when(walletRepository.findTransferWallets(1L, "user", 2L, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(eventStore.isEnabled()).thenReturn(true);
+        when(eventStore.head(any())).thenReturn(head);
+        when(retryExecutor.retrying(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        ResponseEntity<ApiResponse> response = transactionService.transact(request);
+
+        verify(eventStore, times(1)).append(eq(wallet), eq(head), eq(-10_000L), eq(TransactionType.TRANSFERRED), anyLong());
+        verify(eventStore, times(1)).append(eq(anotherWallet), eq(head), eq(10_000L), eq(TransactionType.RECEIVED), anyLong());
+        verify(wallet, never()).withdraw(any());
+        verify(walletRepository, never()).saveAll(any());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void test_eventStoreAppendsLegsInWalletIdOrder() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Wallet wallet = new Wallet(new Money(300, Currency.INR), user);
+        Wallet anotherWallet = new Wallet(new Money(), anotherUser);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        TransactionRequest request = new TransactionRequest("username", 2L, 1L, new Money(100, Currency.INR));
+        LedgerEventStore.Head head = new LedgerEventStore.Head(0, 30_000);
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(2L);
+        anotherWallet.setId(1L);
+        when(walletRepository.findTransferWallets(2L, "user", 1L, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(eventStore.isEnabled()).thenReturn(true);
+        when(eventStore.head(any())).thenReturn(head);
+        when(retryExecutor.retrying(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        transactionService.transact(request);
+
+        InOrder order = inOrder(eventStore);
+        order.verify(eventStore).append(eq(anotherWallet), eq(head), eq(10_000L), eq(TransactionType.RECEIVED), anyLong());
+        order.verify(eventStore).append(eq(wallet), eq(head), eq(-10_000L), eq(TransactionType.TRANSFERRED), anyLong());
+    }
+
+    @Test
+    void test_eventStoreAppendsNothingWhenTheSenderWouldBeOverdrawn() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Wallet wallet = new Wallet(new Money(300, Currency.INR), user);
+        Wallet anotherWallet = new Wallet(new Money(), anotherUser);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        TransactionRequest request = new TransactionRequest("username", 2L, 1L, new Money(100, Currency.INR));
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(2L);
+        anotherWallet.setId(1L);
+        when(walletRepository.findTransferWallets(2L, "user", 1L, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(eventStore.isEnabled()).thenReturn(true);
+        when(eventStore.head(any())).thenReturn(new LedgerEventStore.Head(0, 5_000));
+        when(retryExecutor.retrying(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
+        assertThrows(OverWithdrawalException.class, () -> transactionService.transact(request));
+        verify(eventStore, never()).append(any(), any(), anyLong(), any(), anyLong());
+    }
+
+    @Test
+    void test_shardedReceiverIsCreditedThroughASlotWithoutLockingItsRow() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Wallet wallet = spy(new Wallet(new Money(300, Currency.INR), user));
+        Wallet anotherWallet = spy(new Wallet(new Money(), anotherUser));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        TransactionRequest request = new TransactionRequest("username", 1L, 2L, new Money(100, Currency.INR));
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(1L);
+        anotherWallet.setId(2L);
+        when(walletRepository.findTransferWallets(1L, "user", 2L, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(walletShards.isSharded(2L)).thenReturn(true);
+        ResponseEntity<ApiResponse> response = transactionService.transact(request);
+
+        verify(walletLockManager, times(1)).withLocks(eq(List.of(1L)), eq(List.of(2L)), any());
+        verify(walletLocks, times(1)).lock(1L);
+        verify(walletShards, times(1)).credit(2L, 10_000L);
+        verify(walletShards, times(1)).cover(wallet, 10_000L);
+        verify(anotherWallet, never()).deposit(any());
+        assertEquals(new Money(200, Currency.INR), wallet.getMoney());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
     @Test
     void test_transactionIsCompleteForReceiverWithDifferentCurrency() {
         User user = mock(User.class);
@@ -116,15 +338,26 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("user");
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(anotherUser));
-        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
-        when(walletRepository.findByIdAndUser(anotherWalletId, anotherUser)).thenReturn(Optional.of(anotherWallet));
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(currencyConverter.convertAsync(transactionAmount, Currency.GBP))
+                .thenReturn(CompletableFuture.completedFuture(new Money(100.0, Currency.GBP)));
+        when(feeSchedule.charge(transactionAmount, Currency.GBP)).thenReturn(new Money(10.0, Currency.INR));
         ResponseEntity<ApiResponse> response = transactionService.transact(request);
 
+        verify(wallet, times(1)).withdraw(new Money(10.0, Currency.INR));
         verify(wallet, times(1)).withdraw(transactionAmount);
         verify(wallet, never()).deposit(transactionAmount);
         verify(anotherWallet, times(1)).deposit(new Money(100.0, Currency.GBP));
+        verify(currencyConverter, times(1)).convertAsync(any(Money.class), any(Currency.class));
+        InOrder order = inOrder(currencyConverter, walletLockManager, retryExecutor);
+        order.verify(retryExecutor).execute(any());
+        order.verify(currencyConverter).convertAsync(transactionAmount, Currency.GBP);
+        order.verify(walletLockManager).withLocks(eq(List.of(walletId, anotherWalletId)), eq(List.of(anotherWalletId)), any());
         verify(anotherWallet, never()).withdraw(transactionAmount);
         verify(walletRepository, times(1)).saveAll(List.of(wallet, anotherWallet));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
@@ -133,6 +366,110 @@ public class TransactionServiceTest {
         assertEquals("transaction complete", Objects.requireNonNull(response.getBody()).getDeveloperMessage());
     }
 
+    @Test
+    void test_transactionWithQuoteSettlesAtQuotedPriceWithoutConversion() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Long walletId = 1L;
+        Long anotherWalletId = 2L;
+        Wallet wallet = spy(new Wallet(new Money(30000, Currency.INR), user));
+        Wallet anotherWallet = spy(new Wallet(new Money(Currency.GBP), anotherUser));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        Money transactionAmount = new Money(10000, Currency.INR);
+        TransactionRequest request = new TransactionRequest("username", walletId, anotherWalletId, transactionAmount, "quote");
+        Quote quote = Quote.builder()
+                .quoteId("quote")
+                .username("user")
+                .money(new Money(10000, Currency.INR))
+                .converted(new Money(99.5, Currency.GBP))
+                .serviceCharge(new Money(12, Currency.INR))
+                .build();
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(quoteStore.claim("quote")).thenReturn(Optional.of(quote));
+        ResponseEntity<ApiResponse> response = transactionService.transact(request);
+
+        verify(wallet, times(1)).withdraw(new Money(12, Currency.INR));
+        verify(wallet, times(1)).withdraw(transactionAmount);
+        verify(anotherWallet, times(1)).deposit(new Money(99.5, Currency.GBP));
+        verify(currencyConverter, never()).convertAsync(any(Money.class), any(Currency.class));
+        verify(feeSchedule, never()).charge(any(Money.class), any(Currency.class));
+        verify(quoteStore, never()).restore(any(Quote.class));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void test_transactionWithUnknownQuote_throwsException() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Long walletId = 1L;
+        Long anotherWalletId = 2L;
+        Wallet wallet = spy(new Wallet(new Money(30000, Currency.INR), user));
+        Wallet anotherWallet = spy(new Wallet(new Money(Currency.GBP), anotherUser));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        Money transactionAmount = new Money(10000, Currency.INR);
+        TransactionRequest request = new TransactionRequest("username", walletId, anotherWalletId, transactionAmount, "quote");
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(quoteStore.claim("quote")).thenReturn(Optional.empty());
+
+        assertThrows(QuoteNotFoundException.class, () -> transactionService.transact(request));
+        verify(wallet, never()).withdraw(any(Money.class));
+    }
+
+    @Test
+    void test_transactionWithQuoteForAnotherAmount_throwsException() {
+        User user = mock(User.class);
+        User anotherUser = mock(User.class);
+        Long walletId = 1L;
+        Long anotherWalletId = 2L;
+        Wallet wallet = spy(new Wallet(new Money(30000, Currency.INR), user));
+        Wallet anotherWallet = spy(new Wallet(new Money(Currency.GBP), anotherUser));
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        Authentication authentication = mock(Authentication.class);
+        Money transactionAmount = new Money(20000, Currency.INR);
+        TransactionRequest request = new TransactionRequest("username", walletId, anotherWalletId, transactionAmount, "quote");
+        Quote quote = Quote.builder()
+                .quoteId("quote")
+                .username("user")
+                .money(new Money(10000, Currency.INR))
+                .converted(new Money(99.5, Currency.GBP))
+                .build();
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("user");
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
+        when(quoteStore.claim("quote")).thenReturn(Optional.of(quote));
+
+        assertThrows(QuoteMismatchException.class, () -> transactionService.transact(request));
+        verify(wallet, never()).withdraw(any(Money.class));
+        verify(quoteStore, times(1)).restore(quote);
+    }
+
     @Test
     void test_transactionNotCompleteWhenUserTriesToTransactInDifferentCurrency_throwsException() {
         User user = mock(User.class);
@@ -149,10 +486,12 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("user");
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(anotherUser));
-        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
-        when(walletRepository.findByIdAndUser(anotherWalletId, anotherUser)).thenReturn(Optional.of(anotherWallet));
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
 
         assertThrows(IncompatibleCurrencyException.class, () -> {
             ResponseEntity<ApiResponse> response = transactionService.transact(request);
@@ -175,7 +514,7 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(user);
-        when(userRepository.findByUsername(anyString())).thenThrow(new UserNotFoundException());
+        when(userRepository.existsByUsername(any())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
             ResponseEntity<ApiResponse> response = transactionService.transact(request);
@@ -206,10 +545,12 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("user");
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(anotherUser));
-        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
-        when(walletRepository.findByIdAndUser(anotherWalletId, anotherUser)).thenThrow(new UnauthorizedWalletAccessException());
+        when(user.getUsername()).thenReturn("user");
+        wallet.setId(walletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet));
+        when(userRepository.existsByUsername("user")).thenReturn(true);
+        when(userRepository.existsByUsername("username")).thenReturn(true);
 
         assertThrows(UnauthorizedWalletAccessException.class, () -> {
             ResponseEntity<ApiResponse> response = transactionService.transact(request);
@@ -235,10 +576,12 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("user");
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(anotherUser));
-        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
-        when(walletRepository.findByIdAndUser(anotherWalletId, anotherUser)).thenReturn(Optional.of(anotherWallet));
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
 
         assertThrows(OverWithdrawalException.class, () -> {
             ResponseEntity<ApiResponse> response = transactionService.transact(request);
@@ -270,10 +613,12 @@ public class TransactionServiceTest {
 
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(authentication.getName()).thenReturn("user");
-        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
-        when(userRepository.findByUsername("username")).thenReturn(Optional.of(anotherUser));
-        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
-        when(walletRepository.findByIdAndUser(anotherWalletId, anotherUser)).thenReturn(Optional.of(anotherWallet));
+        when(user.getUsername()).thenReturn("user");
+        when(anotherUser.getUsername()).thenReturn("username");
+        wallet.setId(walletId);
+        anotherWallet.setId(anotherWalletId);
+        when(walletRepository.findTransferWallets(walletId, "user", anotherWalletId, "username"))
+                .thenReturn(List.of(wallet, anotherWallet));
 
         assertThrows(InvalidAmountException.class, () -> {
             ResponseEntity<ApiResponse> response = transactionService.transact(request);
@@ -1,5 +1,12 @@
 package com.example.wallet.services;
 
+import com.example.wallet.components.CurrencyConverter;
+import com.example.wallet.components.LedgerEngine;
+import com.example.wallet.components.LedgerEventStore;
+import com.example.wallet.components.WalletLockManager;
+import com.example.wallet.components.WalletLocks;
+import com.example.wallet.components.WalletRetryExecutor;
+import com.example.wallet.components.WalletShards;
 import com.example.wallet.dto.ApiResponse;
 import com.example.wallet.dto.Money;
 import com.example.wallet.dto.WalletResponse;
@@ -18,6 +25,7 @@ import com.example.wallet.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -31,9 +39,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 public class WalletServiceTest {
@@ -47,12 +58,37 @@ public class WalletServiceTest {
     @Mock
     private PassbookEntryRepository passbookEntryRepository;
 
+    @Mock
+    private CurrencyConverter currencyConverter;
+
+    @Mock
+    private WalletLocks walletLocks;
+
+    @Mock
+    private WalletRetryExecutor retryExecutor;
+
+    @Mock
+    private WalletLockManager walletLockManager;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private LedgerEventStore eventStore;
+
+    @Mock
+    private WalletShards walletShards;
+
     @InjectMocks
     private WalletService walletService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(retryExecutor.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(walletLockManager.withLocks(any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+        when(currencyConverter.convert(any(Money.class), any(Currency.class)))
+                .thenAnswer(invocation -> new Money(invocation.<Money>getArgument(0).getAmount(), invocation.getArgument(1)));
     }
 
     @Test
@@ -166,6 +202,73 @@ public class WalletServiceTest {
         assertEquals("Amount deposited", Objects.requireNonNull(response.getBody()).getMessage());
     }
 
+    @Test
+    void test_depositInWalletCurrencyIsNotConverted() {
+        User user = mock(User.class);
+        Long walletId = 1L;
+        Wallet wallet = new Wallet(new Money(Currency.INR), user);
+        SecurityContext context = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(context);
+        Authentication authentication = mock(Authentication.class);
+
+        when(context.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(user);
+        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
+        when(user.getLocation()).thenReturn(Location.INDIA);
+        walletService.deposit(walletId, new Money(10, Currency.INR));
+
+        assertEquals(10, wallet.getMoney().getAmount());
+        verify(currencyConverter, never()).convert(any(Money.class), any(Currency.class));
+        verify(currencyConverter, never()).convertAsync(any(Money.class), any(Currency.class));
+    }
+
+    @Test
+    void test_depositIntoShardedWalletAnswersWithTheBalanceOfItsSlots() {
+        User user = mock(User.class);
+        Long walletId = 1L;
+        Wallet wallet = Wallet.builder().id(walletId).money(new Money(Currency.INR)).user(user).build();
+        SecurityContext context = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(context);
+        Authentication authentication = mock(Authentication.class);
+
+        when(context.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(user);
+        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
+        when(user.getLocation()).thenReturn(Location.INDIA);
+        when(walletShards.isSharded(walletId)).thenReturn(true);
+        when(walletShards.balance(wallet)).thenReturn(new Money(25, Currency.INR));
+        ResponseEntity<ApiResponse> response = walletService.deposit(walletId, new Money(10, Currency.INR));
+
+        WalletResponse walletResponse = (WalletResponse) Objects.requireNonNull(response.getBody()).getData().get("wallet");
+        assertEquals(new Money(25, Currency.INR), walletResponse.getMoney());
+    }
+
+    @Test
+    void test_depositInAnotherCurrencyIsConvertedOnce() {
+        User user = mock(User.class);
+        Long walletId = 1L;
+        Wallet wallet = new Wallet(new Money(Currency.INR), user);
+        SecurityContext context = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(context);
+        Authentication authentication = mock(Authentication.class);
+        Money deposit = new Money(10, Currency.USD);
+
+        when(context.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(user);
+        when(walletRepository.findByIdAndUser(walletId, user)).thenReturn(Optional.of(wallet));
+        when(user.getLocation()).thenReturn(Location.INDIA);
+        when(currencyConverter.convertAsync(deposit, Currency.INR))
+                .thenReturn(CompletableFuture.completedFuture(new Money(830, Currency.INR)));
+        walletService.deposit(walletId, deposit);
+
+        assertEquals(830, wallet.getMoney().getAmount());
+        verify(currencyConverter, times(1)).convertAsync(deposit, Currency.INR);
+        InOrder order = inOrder(currencyConverter, walletLocks);
+        order.verify(currencyConverter).convertAsync(deposit, Currency.INR);
+        order.verify(walletLocks).lock(walletId);
+        order.verify(walletLocks).reload(wallet);
+    }
+
     @Test
     void test_invalidAmountDeposited_throwsException() {
         assertThrows(InvalidAmountException.class, () -> {